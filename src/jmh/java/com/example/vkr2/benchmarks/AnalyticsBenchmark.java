@@ -0,0 +1,105 @@
+package com.example.vkr2.benchmarks;
+
+import com.example.vkr2.entity.*;
+import com.example.vkr2.repository.*;
+import com.example.vkr2.services.AnalyticsService;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Агрегация расходов в AnalyticsService на синтетических данных.
+ * <p>
+ * size - число записей в каждой таблице (заправки, сервис, доп. расходы, запчасти), распределённых
+ * по 50 автомобилям за полтора года. Репозитории замоканы: findAll/findByCarId отдают готовые списки,
+ * выборки по периоду фильтруются в ответе мока, как это сделал бы запрос с BETWEEN.
+ * <p>
+ * Запуск: mvn -P benchmarks test-compile exec:exec -Djmh.args="AnalyticsBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+
+    private static final int CARS = 50;
+    private static final Long CAR_ID = 1L;
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private AnalyticsService analyticsService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.quietLogging();
+        Random random = new Random(BenchmarkData.SEED);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Car> cars = BenchmarkData.cars(CARS, random);
+        List<FuelEntry> fuelEntries = BenchmarkData.fuelEntries(cars, size, now, random);
+        List<ServiceRecord> serviceRecords = BenchmarkData.serviceRecords(cars, size, now, random);
+        List<AdditionalExpense> expenses = BenchmarkData.additionalExpenses(cars, size, now, random);
+        List<SparePart> spareParts = BenchmarkData.spareParts(size, now, random);
+
+        FuelEntryRepository fuelEntryRepository = BenchmarkData.stub(FuelEntryRepository.class);
+        Mockito.when(fuelEntryRepository.findAll()).thenReturn(fuelEntries);
+        Mockito.when(fuelEntryRepository.findByCarId(CAR_ID)).thenReturn(
+                fuelEntries.stream().filter(e -> CAR_ID.equals(e.getCar().getId())).toList());
+
+        ServiceRecordRepository serviceRecordRepository = BenchmarkData.stub(ServiceRecordRepository.class);
+        Mockito.when(serviceRecordRepository.findAll()).thenReturn(serviceRecords);
+        Mockito.when(serviceRecordRepository.findByCarId(CAR_ID)).thenReturn(
+                serviceRecords.stream().filter(r -> CAR_ID.equals(r.getCar().getId())).toList());
+
+        AdditionalExpenseRepository additionalExpenseRepository = BenchmarkData.stub(AdditionalExpenseRepository.class);
+        Mockito.when(additionalExpenseRepository.findByDateTimeBetween(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> BenchmarkData.between(expenses, AdditionalExpense::getDateTime,
+                        invocation.getArgument(0), invocation.getArgument(1)));
+        List<AdditionalExpense> carExpenses = expenses.stream().filter(e -> CAR_ID.equals(e.getCar().getId())).toList();
+        Mockito.when(additionalExpenseRepository.findByCarIdAndDateTimeBetween(
+                        ArgumentMatchers.eq(CAR_ID), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> BenchmarkData.between(carExpenses, AdditionalExpense::getDateTime,
+                        invocation.getArgument(1), invocation.getArgument(2)));
+
+        SparePartRepository sparePartRepository = BenchmarkData.stub(SparePartRepository.class);
+        Mockito.when(sparePartRepository.findByDateTimeBetween(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> BenchmarkData.between(spareParts, SparePart::getDateTime,
+                        invocation.getArgument(0), invocation.getArgument(1)));
+
+        CarRepository carRepository = BenchmarkData.stub(CarRepository.class);
+        Mockito.when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(cars.get(0)));
+
+        analyticsService = new AnalyticsService(fuelEntryRepository, additionalExpenseRepository,
+                serviceRecordRepository, sparePartRepository, carRepository);
+    }
+
+    @Benchmark
+    public Map<String, Object> totalExpenses() {
+        return analyticsService.getTotalExpenses(null, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> carExpenses() {
+        return analyticsService.getCarExpenses(CAR_ID, null, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> monthlyExpensesFleet() {
+        return analyticsService.getMonthlyExpenses(null, 12);
+    }
+
+    @Benchmark
+    public Map<String, Object> monthlyExpensesCar() {
+        return analyticsService.getMonthlyExpenses(CAR_ID, 12);
+    }
+}
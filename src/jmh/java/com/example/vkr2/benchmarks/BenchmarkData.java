@@ -0,0 +1,205 @@
+package com.example.vkr2.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import com.example.vkr2.entity.*;
+import org.mockito.Mockito;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Синтетические наборы данных для бенчмарков сервисного слоя.
+ * <p>
+ * Генерация детерминирована (фиксированное зерно), записи равномерно распределены по последним
+ * {@link #SPAN_DAYS} дням, а показания счётчика растут со временем, поэтому проверки пробега проходят.
+ */
+final class BenchmarkData {
+
+    static final long SEED = 42L;
+    static final int SPAN_DAYS = 540;
+    static final long BASE_COUNTER = 10_000L;
+
+    private static final String[] BRANDS = {"Toyota", "Lada", "Kia", "Hyundai", "Volkswagen", "Skoda", "Renault", "GAZ"};
+    private static final String[] MODELS = {"Camry", "Vesta", "Rio", "Solaris", "Polo", "Octavia", "Logan", "Gazelle"};
+    private static final String[] STATIONS = {"Лукойл", "Роснефть", "Газпромнефть", "Татнефть", "Shell"};
+    private static final String[] EXPENSE_TYPES = {"Мойка", "Парковка", "Штраф", "Страховка", "Шиномонтаж"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Логи сервисов на каждом вызове (INFO, а на путях отказа - ERROR) искажают замеры и засоряют вывод JMH
+     */
+    static void quietLogging() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.example.vkr2")).setLevel(Level.OFF);
+    }
+
+    /**
+     * Заглушка репозитория или сервиса: stubOnly не записывает вызовы для verify, иначе история вызовов
+     * растёт на каждой итерации и замер включает работу Mockito и сборку мусора
+     */
+    static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+
+    static LocalDateTime start(LocalDateTime now) {
+        return now.minusDays(SPAN_DAYS);
+    }
+
+    // Момент i-й из count записей, равномерно по периоду
+    static LocalDateTime at(LocalDateTime now, int i, int count) {
+        long spanMinutes = SPAN_DAYS * 24L * 60L;
+        return start(now).plusMinutes(spanMinutes * i / Math.max(count, 1));
+    }
+
+    // Пробег растёт на 1 км в час от начала периода, одинаково для всех автомобилей
+    static long counterAt(LocalDateTime now, LocalDateTime dateTime) {
+        return BASE_COUNTER + ChronoUnit.HOURS.between(start(now), dateTime);
+    }
+
+    static List<Car> cars(int count, Random random) {
+        List<Car> cars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int model = random.nextInt(BRANDS.length);
+            Car car = Car.builder()
+                    .id((long) i + 1)
+                    .vin(String.format("XTA%014d", i + 1))
+                    .licensePlate(String.format("А%03dАА%02d", i % 1000, 77 + i % 100))
+                    .brand(BRANDS[model])
+                    .model(MODELS[model])
+                    .year(2010 + random.nextInt(15))
+                    .odometr((int) BASE_COUNTER)
+                    .fuelConsumption(6 + random.nextDouble() * 8)
+                    .status(CarStatus.values()[random.nextInt(CarStatus.values().length)])
+                    .counterType(CounterType.ODOMETER)
+                    .secondaryCounterEnabled(Boolean.FALSE)
+                    .fuelTankVolume(50.0 + random.nextInt(30))
+                    .fuelType(FuelEntry.FuelType.GASOLINE)
+                    .description(i % 3 == 0 ? "Служебный автомобиль №" + (i + 1) : null)
+                    .build();
+            if (i % 2 == 0) {
+                Driver driver = new Driver();
+                driver.setId((long) i + 1);
+                driver.setFullName("Водитель " + (i + 1));
+                car.setDriver(driver);
+            }
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    static List<FuelEntry> fuelEntries(List<Car> cars, int count, LocalDateTime now, Random random) {
+        List<FuelEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime dateTime = at(now, i, count);
+            double volume = 20 + random.nextDouble() * 40;
+            double price = 50 + random.nextDouble() * 15;
+            entries.add(FuelEntry.builder()
+                    .id((long) i + 1)
+                    .car(cars.get(i % cars.size()))
+                    .odometerReading(counterAt(now, dateTime))
+                    .gasStation(STATIONS[random.nextInt(STATIONS.length)])
+                    .fuelType(FuelEntry.FuelType.GASOLINE)
+                    .volume(volume)
+                    .pricePerUnit(price)
+                    .totalCost(volume * price)
+                    .dateTime(dateTime)
+                    .build());
+        }
+        return entries;
+    }
+
+    static List<ServiceRecord> serviceRecords(List<Car> cars, int count, LocalDateTime now, Random random) {
+        ServiceRecord.ServiceStatus[] statuses = ServiceRecord.ServiceStatus.values();
+        List<ServiceRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime dateTime = at(now, i, count);
+            records.add(ServiceRecord.builder()
+                    .id((long) i + 1)
+                    .car(cars.get(i % cars.size()))
+                    .counterReading(counterAt(now, dateTime))
+                    .startDateTime(dateTime)
+                    .plannedEndDateTime(dateTime.plusDays(1))
+                    .details("Плановое ТО: замена масла, фильтров и тормозных колодок, диагностика подвески")
+                    .totalCost(3_000 + random.nextDouble() * 30_000)
+                    .status(statuses[random.nextInt(statuses.length)])
+                    .createdAt(dateTime)
+                    .build());
+        }
+        return records;
+    }
+
+    static List<AdditionalExpense> additionalExpenses(List<Car> cars, int count, LocalDateTime now, Random random) {
+        List<AdditionalExpense> expenses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            expenses.add(AdditionalExpense.builder()
+                    .id((long) i + 1)
+                    .car(cars.get(i % cars.size()))
+                    .type(EXPENSE_TYPES[random.nextInt(EXPENSE_TYPES.length)])
+                    .price(200 + random.nextDouble() * 5_000)
+                    .dateTime(at(now, i, count))
+                    .description(i % 4 == 0 ? "Расход №" + (i + 1) : null)
+                    .build());
+        }
+        return expenses;
+    }
+
+    static List<SparePart> spareParts(int count, LocalDateTime now, Random random) {
+        SparePart.Category[] categories = SparePart.Category.values();
+        List<SparePart> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double pricePerUnit = 100 + random.nextDouble() * 10_000;
+            double quantity = 1 + random.nextInt(4);
+            parts.add(SparePart.builder()
+                    .id((long) i + 1)
+                    .name("Запчасть " + (i + 1))
+                    .category(categories[random.nextInt(categories.length)])
+                    .pricePerUnit(pricePerUnit)
+                    .quantity(quantity)
+                    .unit(SparePart.Unit.PIECES)
+                    .totalSum(pricePerUnit * quantity)
+                    .dateTime(at(now, i, count))
+                    .build());
+        }
+        return parts;
+    }
+
+    static List<Notification> notifications(List<Car> cars, int count, LocalDateTime now, Random random) {
+        Notification.NotificationType[] types = Notification.NotificationType.values();
+        List<Notification> notifications = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Car car = cars.get(i % cars.size());
+            int kmToNextService = random.nextInt(3_000) - 1_000;
+            notifications.add(Notification.builder()
+                    .id((long) i + 1)
+                    .car(car)
+                    .message("Автомобиль " + car.getBrand() + " " + car.getModel() + ": до ТО " + kmToNextService + " км")
+                    .kmToNextService(i % 10 == 0 ? null : kmToNextService)
+                    .serviceCount(random.nextInt(10))
+                    .createdAt(at(now, i, count))
+                    .read(random.nextBoolean())
+                    .active(true)
+                    .type(types[random.nextInt(types.length)])
+                    .build());
+        }
+        return notifications;
+    }
+
+    // Записи за период включительно, как BETWEEN в запросах репозиториев
+    static <T> List<T> between(List<T> items, Function<T, LocalDateTime> dateTime,
+                               LocalDateTime from, LocalDateTime to) {
+        List<T> result = new ArrayList<>();
+        for (T item : items) {
+            LocalDateTime value = dateTime.apply(item);
+            if (!value.isBefore(from) && !value.isAfter(to)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.vkr2.benchmarks;
+
+import com.example.vkr2.entity.Car;
+import com.example.vkr2.entity.FuelEntry;
+import com.example.vkr2.entity.ServiceRecord;
+import com.example.vkr2.repository.CarRepository;
+import com.example.vkr2.repository.FuelEntryRepository;
+import com.example.vkr2.repository.ServiceRecordRepository;
+import com.example.vkr2.services.CounterValidationService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка показаний счётчика в CounterValidationService.
+ * <p>
+ * size - число заправок и столько же сервисных записей одного автомобиля; показания растут со временем,
+ * так что validateFuelEntryCounter проходит все проверки и просматривает всю историю.
+ * <p>
+ * Запуск: mvn -P benchmarks test-compile exec:exec -Djmh.args="CounterValidationBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CounterValidationBenchmark {
+
+    private static final Long CAR_ID = 1L;
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private CounterValidationService counterValidationService;
+    private Long nextCounter;
+    private LocalDateTime nextDateTime;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.quietLogging();
+        Random random = new Random(BenchmarkData.SEED);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Car> cars = BenchmarkData.cars(1, random);
+        List<FuelEntry> fuelEntries = BenchmarkData.fuelEntries(cars, size, now, random);
+        List<ServiceRecord> serviceRecords = BenchmarkData.serviceRecords(cars, size, now, random);
+
+        FuelEntryRepository fuelEntryRepository = BenchmarkData.stub(FuelEntryRepository.class);
+        Mockito.when(fuelEntryRepository.findByCarId(CAR_ID)).thenReturn(fuelEntries);
+        ServiceRecordRepository serviceRecordRepository = BenchmarkData.stub(ServiceRecordRepository.class);
+        Mockito.when(serviceRecordRepository.findByCarId(CAR_ID)).thenReturn(serviceRecords);
+        CarRepository carRepository = BenchmarkData.stub(CarRepository.class);
+        Mockito.when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(cars.get(0)));
+
+        counterValidationService = new CounterValidationService(fuelEntryRepository, serviceRecordRepository, carRepository);
+
+        // Новая заправка: через час после последней записи, с пробегом на 100 км больше
+        nextDateTime = now.plusHours(1);
+        nextCounter = BenchmarkData.counterAt(now, now) + 100;
+        counterValidationService.validateFuelEntryCounter(CAR_ID, nextCounter, nextDateTime);
+    }
+
+    @Benchmark
+    public Long minimumAllowedCounter() {
+        return counterValidationService.getMinimumAllowedCounter(CAR_ID);
+    }
+
+    @Benchmark
+    public void validateFuelEntryCounter() {
+        counterValidationService.validateFuelEntryCounter(CAR_ID, nextCounter, nextDateTime);
+    }
+
+    @Benchmark
+    public Map<String, Object> counterInfo() {
+        return counterValidationService.getCounterInfo(CAR_ID);
+    }
+}
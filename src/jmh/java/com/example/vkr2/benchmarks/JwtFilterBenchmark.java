@@ -0,0 +1,157 @@
+package com.example.vkr2.benchmarks;
+
+import com.example.vkr2.JWT.JwtAuthenticationFilter;
+import com.example.vkr2.JWT.models.JwtPrincipal;
+import com.example.vkr2.JWT.models.User;
+import com.example.vkr2.JWT.repo.RevokedTokenRepository;
+import com.example.vkr2.JWT.repo.UserRepository;
+import com.example.vkr2.JWT.services.JwtService;
+import com.example.vkr2.JWT.services.RefreshTokenService;
+import com.example.vkr2.JWT.services.TokenRevocationService;
+import com.example.vkr2.JWT.services.UserPrincipalCache;
+import com.example.vkr2.JWT.services.UserService;
+import com.example.vkr2.services.CacheInvalidationBus;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы JWT-фильтра на один запрос.
+ * <p>
+ * legacyTripleParse воспроизводит прежнюю проверку: три разбора токена,
+ * каждый с повторным декодированием ключа. singleParse - текущий путь через JwtService.parseToken,
+ * filterRequest - полный проход фильтра с загрузкой пользователя из замоканного репозитория,
+ * filterRequestStateless - то же в режиме без обращения к базе (claims токена + кэш пользователей).
+ * generateToken - выпуск токена доступа, rejectTamperedToken - отказ по подписи для подделанного токена.
+ * <p>
+ * Запуск: mvn -P benchmarks test-compile exec:exec -Djmh.args="JwtFilterBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    private static final String SIGNING_KEY = "53A73E5F1C4E0A2D3B5F2D784E6A1B423D6F247D1F6E5C3A596D635A75327855";
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+    private JwtAuthenticationFilter statelessFilter;
+    private String token;
+    private String tamperedToken;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.quietLogging();
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSigningKey", SIGNING_KEY);
+        ReflectionTestUtils.setField(jwtService, "accessTokenTtlMs", 900_000L);
+        jwtService.init();
+
+        user = User.builder()
+                .id(1L)
+                .username("benchmark")
+                .email("benchmark@example.com")
+                .password("password")
+                .build();
+        token = jwtService.generateToken(user);
+        if (jwtService.parseToken(token) == null) {
+            throw new IllegalStateException("Сгенерированный токен не проходит проверку");
+        }
+        // Меняем символ в середине подписи: последний символ base64url может нести только биты выравнивания
+        int signaturePos = token.lastIndexOf('.') + 10;
+        char replaced = token.charAt(signaturePos) == 'A' ? 'B' : 'A';
+        tamperedToken = token.substring(0, signaturePos) + replaced + token.substring(signaturePos + 1);
+        if (jwtService.parseToken(tamperedToken) != null) {
+            throw new IllegalStateException("Подделанный токен проходит проверку");
+        }
+
+        UserRepository userRepository = BenchmarkData.stub(UserRepository.class);
+        Mockito.when(userRepository.findByUsername("benchmark")).thenReturn(Optional.of(user));
+        RefreshTokenService refreshTokenService = BenchmarkData.stub(RefreshTokenService.class);
+        CacheInvalidationBus cacheInvalidationBus = BenchmarkData.stub(CacheInvalidationBus.class);
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(
+                BenchmarkData.stub(RevokedTokenRepository.class), cacheInvalidationBus);
+        ReflectionTestUtils.setField(tokenRevocationService, "expectedInsertions", 10_000);
+        ReflectionTestUtils.setField(tokenRevocationService, "falsePositiveRate", 0.01);
+        tokenRevocationService.init();
+
+        filter = new JwtAuthenticationFilter(jwtService, new UserService(userRepository, new UserPrincipalCache(cacheInvalidationBus), refreshTokenService),
+                tokenRevocationService);
+
+        UserPrincipalCache userPrincipalCache = new UserPrincipalCache(cacheInvalidationBus);
+        ReflectionTestUtils.setField(userPrincipalCache, "ttlMs", 300_000L);
+        ReflectionTestUtils.setField(userPrincipalCache, "maxSize", 10_000);
+        statelessFilter = new JwtAuthenticationFilter(jwtService, new UserService(userRepository, userPrincipalCache, refreshTokenService),
+                tokenRevocationService);
+        ReflectionTestUtils.setField(statelessFilter, "statelessAuthEnabled", true);
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        // extractUserName + isTokenValid (имя пользователя и срок действия)
+        String username = legacyParse(token).getSubject();
+        boolean sameUser = username.equals(legacyParse(token).getSubject());
+        return sameUser && legacyParse(token).getExpiration().after(new Date());
+    }
+
+    @Benchmark
+    public JwtPrincipal singleParse() {
+        return jwtService.parseToken(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public JwtPrincipal rejectTamperedToken() {
+        return jwtService.parseToken(tamperedToken);
+    }
+
+    @Benchmark
+    public void filterRequest(Blackhole blackhole) throws Exception {
+        runFilter(filter, blackhole);
+    }
+
+    @Benchmark
+    public void filterRequestStateless(Blackhole blackhole) throws Exception {
+        runFilter(statelessFilter, blackhole);
+    }
+
+    private void runFilter(JwtAuthenticationFilter target, Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cars");
+        request.addHeader(JwtAuthenticationFilter.HEADER_NAME, JwtAuthenticationFilter.BEARER_PREFIX + token);
+
+        target.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    private Claims legacyParse(String jwt) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SIGNING_KEY));
+        return Jwts.parser()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.vkr2.benchmarks;
+
+import com.example.vkr2.DTO.NotificationDTO;
+import com.example.vkr2.entity.Car;
+import com.example.vkr2.entity.Notification;
+import com.example.vkr2.repository.CarRepository;
+import com.example.vkr2.repository.NotificationRepository;
+import com.example.vkr2.repository.ReminderSettingsRepository;
+import com.example.vkr2.repository.ServiceRecordRepository;
+import com.example.vkr2.services.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фильтрация и сортировка активных уведомлений (NotificationService.processNotifications
+ * через getActiveNotificationsWithFilters), включая отображение в NotificationDTO.
+ * <p>
+ * size - число активных уведомлений по 200 автомобилям.
+ * <p>
+ * Запуск: mvn -P benchmarks test-compile exec:exec -Djmh.args="NotificationFilterBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationFilterBenchmark {
+
+    private static final int CARS = 200;
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private NotificationService notificationService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.quietLogging();
+        Random random = new Random(BenchmarkData.SEED);
+        List<Car> cars = BenchmarkData.cars(CARS, random);
+        List<Notification> notifications = BenchmarkData.notifications(cars, size, LocalDateTime.now(), random);
+
+        NotificationRepository notificationRepository = BenchmarkData.stub(NotificationRepository.class);
+        Mockito.when(notificationRepository.findByActiveTrue()).thenReturn(notifications);
+
+        notificationService = new NotificationService(notificationRepository, BenchmarkData.stub(CarRepository.class),
+                BenchmarkData.stub(ReminderSettingsRepository.class), BenchmarkData.stub(ServiceRecordRepository.class),
+                new SimpleMeterRegistry(), BenchmarkData.stub(JdbcTemplate.class));
+    }
+
+    @Benchmark
+    public List<NotificationDTO> noFilterSortByDate() {
+        return notificationService.getActiveNotificationsWithFilters(null, "all", "all", "date");
+    }
+
+    @Benchmark
+    public List<NotificationDTO> searchSortByCar() {
+        return notificationService.getActiveNotificationsWithFilters("toyota", "all", "all", "car");
+    }
+
+    @Benchmark
+    public List<NotificationDTO> typeAndStatusSortByPriority() {
+        return notificationService.getActiveNotificationsWithFilters(null, "overdue", "unread", "priority");
+    }
+
+    @Benchmark
+    public List<NotificationDTO> sortByKm() {
+        return notificationService.getActiveNotificationsWithFilters(null, "all", "all", "km");
+    }
+}
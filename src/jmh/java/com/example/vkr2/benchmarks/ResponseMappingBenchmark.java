@@ -0,0 +1,97 @@
+package com.example.vkr2.benchmarks;
+
+import com.example.vkr2.DTO.AdditionalExpenseResponse;
+import com.example.vkr2.DTO.CarResponse;
+import com.example.vkr2.DTO.FuelEntryResponse;
+import com.example.vkr2.DTO.ServiceRecordResponse;
+import com.example.vkr2.entity.*;
+import com.example.vkr2.repository.*;
+import com.example.vkr2.services.*;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отображение сущностей в ответы API (mapTo*Response) на списочных методах сервисов.
+ * <p>
+ * size - число записей в списке; репозитории замоканы и возвращают готовые сущности со связанным автомобилем.
+ * <p>
+ * Запуск: mvn -P benchmarks test-compile exec:exec -Djmh.args="ResponseMappingBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseMappingBenchmark {
+
+    private static final int CARS = 50;
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private CarService carService;
+    private FuelEntryService fuelEntryService;
+    private ServiceRecordService serviceRecordService;
+    private AdditionalExpenseService additionalExpenseService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.quietLogging();
+        Random random = new Random(BenchmarkData.SEED);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Car> cars = BenchmarkData.cars(size, random);
+        List<Car> owners = cars.subList(0, CARS);
+        List<FuelEntry> fuelEntries = BenchmarkData.fuelEntries(owners, size, now, random);
+        List<ServiceRecord> serviceRecords = BenchmarkData.serviceRecords(owners, size, now, random);
+        List<AdditionalExpense> expenses = BenchmarkData.additionalExpenses(owners, size, now, random);
+
+        CarRepository carRepository = BenchmarkData.stub(CarRepository.class);
+        Mockito.when(carRepository.findAllActive()).thenReturn(cars);
+        FuelEntryRepository fuelEntryRepository = BenchmarkData.stub(FuelEntryRepository.class);
+        Mockito.when(fuelEntryRepository.findAllWithCar()).thenReturn(fuelEntries);
+        ServiceRecordRepository serviceRecordRepository = BenchmarkData.stub(ServiceRecordRepository.class);
+        Mockito.when(serviceRecordRepository.findAllWithCar()).thenReturn(serviceRecords);
+        AdditionalExpenseRepository additionalExpenseRepository = BenchmarkData.stub(AdditionalExpenseRepository.class);
+        Mockito.when(additionalExpenseRepository.findAllWithCar()).thenReturn(expenses);
+
+        CounterValidationService counterValidationService = BenchmarkData.stub(CounterValidationService.class);
+        OutboxService outboxService = BenchmarkData.stub(OutboxService.class);
+
+        carService = new CarService(carRepository, BenchmarkData.stub(DriverRepository.class),
+                BenchmarkData.stub(ReminderSettingsRepository.class), fuelEntryRepository, additionalExpenseRepository,
+                serviceRecordRepository, BenchmarkData.stub(ServiceTaskRepository.class), BenchmarkData.stub(NotificationRepository.class),
+                BenchmarkData.stub(OdometerTelemetryChunkRepository.class), BenchmarkData.stub(CacheInvalidationBus.class), outboxService,
+                BenchmarkData.stub(AuditEventListener.class));
+        fuelEntryService = new FuelEntryService(fuelEntryRepository, carRepository, counterValidationService, outboxService);
+        serviceRecordService = new ServiceRecordService(serviceRecordRepository, carRepository, counterValidationService,
+                BenchmarkData.stub(NotificationService.class), outboxService);
+        additionalExpenseService = new AdditionalExpenseService(additionalExpenseRepository, carRepository);
+    }
+
+    @Benchmark
+    public List<CarResponse> cars() {
+        return carService.getAllCars();
+    }
+
+    @Benchmark
+    public List<FuelEntryResponse> fuelEntries() {
+        return fuelEntryService.getAllFuelEntries();
+    }
+
+    @Benchmark
+    public List<ServiceRecordResponse> serviceRecords() {
+        return serviceRecordService.getAllServiceRecords();
+    }
+
+    @Benchmark
+    public List<AdditionalExpenseResponse> additionalExpenses() {
+        return additionalExpenseService.getAllAdditionalExpenses();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.vkr2.DTO;
+
+import com.example.vkr2.entity.AuditLogEntry;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(description = "Запись журнала аудита")
+public class AuditLogResponse {
+
+    @Schema(description = "ID записи", example = "1")
+    private Long id;
+
+    @Schema(description = "Тип сущности", example = "Car")
+    private String entityType;
+
+    @Schema(description = "ID сущности", example = "12")
+    private String entityId;
+
+    @Schema(description = "Действие", example = "UPDATE")
+    private AuditLogEntry.Action action;
+
+    @Schema(description = "Пользователь", example = "admin")
+    private String username;
+
+    @JsonRawValue
+    @Schema(description = "Изменённые поля со старым и новым значением")
+    private String changes;
+
+    @Schema(description = "Время изменения", example = "2025-05-30T14:30:00")
+    private LocalDateTime changedAt;
+}
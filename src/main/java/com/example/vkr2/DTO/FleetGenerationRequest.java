@@ -0,0 +1,37 @@
+package com.example.vkr2.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+@Schema(description = "Параметры генерации синтетического автопарка; незаданные поля берутся из настроек data-generator.*")
+public class FleetGenerationRequest {
+
+    @Schema(description = "Количество автомобилей", example = "10000")
+    @NotNull(message = "Количество автомобилей обязательно")
+    @Min(value = 1, message = "Количество автомобилей должно быть не менее 1")
+    @Max(value = 1_000_000, message = "Количество автомобилей должно быть не более 1000000")
+    private Integer cars;
+
+    @Schema(description = "Зерно генератора случайных чисел", example = "42")
+    private Long seed;
+
+    @Schema(description = "Среднее число заправок на автомобиль", example = "1000")
+    @Min(value = 0, message = "Число заправок не может быть отрицательным")
+    private Integer fuelEntriesPerCar;
+
+    @Schema(description = "Среднее число сервисных записей на автомобиль", example = "6")
+    @Min(value = 0, message = "Число сервисных записей не может быть отрицательным")
+    private Integer serviceRecordsPerCar;
+
+    @Schema(description = "Среднее число дополнительных расходов на автомобиль", example = "15")
+    @Min(value = 0, message = "Число расходов не может быть отрицательным")
+    private Integer expensesPerCar;
+
+    @Schema(description = "Количество запчастей", example = "2000")
+    @Min(value = 0, message = "Количество запчастей не может быть отрицательным")
+    private Integer spareParts;
+}
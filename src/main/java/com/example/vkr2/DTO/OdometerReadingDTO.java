@@ -0,0 +1,29 @@
+package com.example.vkr2.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Показание одометра")
+public class OdometerReadingDTO {
+
+    @Schema(description = "Дата и время показания", example = "2025-05-20T10:31:00")
+    @NotNull(message = "Дата и время не могут быть пустыми")
+    private LocalDateTime dateTime;
+
+    @Schema(description = "Показание одометра (км)", example = "50012")
+    @NotNull(message = "Показание одометра не может быть пустым")
+    @Min(value = 0, message = "Показание одометра не может быть отрицательным")
+    // Пробег автомобиля хранится в int
+    @Max(value = Integer.MAX_VALUE, message = "Показание одометра слишком велико")
+    private Long odometer;
+}
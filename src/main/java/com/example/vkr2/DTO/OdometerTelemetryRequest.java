@@ -0,0 +1,22 @@
+package com.example.vkr2.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Пакет показаний одометра для записи в телеметрию")
+public class OdometerTelemetryRequest {
+
+    @Schema(description = "ID автомобиля", example = "1")
+    @NotNull(message = "ID автомобиля не может быть пустым")
+    private Long carId;
+
+    @Schema(description = "Показания одометра")
+    @NotEmpty(message = "Список показаний не может быть пустым")
+    private List<@Valid OdometerReadingDTO> readings;
+}
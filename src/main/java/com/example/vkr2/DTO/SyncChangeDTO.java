@@ -0,0 +1,26 @@
+package com.example.vkr2.DTO;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@Schema(description = "Изменение строки для инкрементальной синхронизации")
+public class SyncChangeDTO {
+
+    @Schema(description = "Курсор изменения", example = "1024")
+    private Long seq;
+
+    @Schema(description = "Таблица", example = "fuel_entries")
+    private String table;
+
+    @Schema(description = "ID строки", example = "15")
+    private Long id;
+
+    @Schema(description = "Операция: I - создание, U - изменение, D - удаление", example = "U")
+    private String operation;
+
+    @JsonRawValue
+    @Schema(description = "Текущее состояние строки (для удаления - null)")
+    private String data;
+}
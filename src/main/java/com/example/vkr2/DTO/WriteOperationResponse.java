@@ -0,0 +1,36 @@
+package com.example.vkr2.DTO;
+
+import com.example.vkr2.entity.WriteOperation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(description = "Состояние отложенной операции записи")
+public class WriteOperationResponse {
+
+    @Schema(description = "ID операции", example = "3f2b8c1e-6d4a-4e0b-9a57-2c1d8e7f6a90")
+    private String operationId;
+
+    @Schema(description = "Тип операции", example = "FUEL_ENTRY")
+    private WriteOperation.Type type;
+
+    @Schema(description = "ID автомобиля", example = "1")
+    private Long carId;
+
+    @Schema(description = "Статус", example = "SUCCEEDED")
+    private WriteOperation.Status status;
+
+    @Schema(description = "ID созданной записи", example = "15")
+    private Long resultId;
+
+    @Schema(description = "Причина ошибки", example = "Показание одометра меньше предыдущего")
+    private String error;
+
+    @Schema(description = "Дата приёма операции", example = "2025-05-30T14:30:00")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Дата завершения операции", example = "2025-05-30T14:30:01")
+    private LocalDateTime completedAt;
+}
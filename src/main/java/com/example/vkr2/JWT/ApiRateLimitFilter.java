@@ -0,0 +1,187 @@
+package com.example.vkr2.JWT;
+
+import com.example.vkr2.JWT.services.RequestBulkhead;
+import com.example.vkr2.JWT.services.StripedRateLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ограничение нагрузки на API: частота запросов на пользователя и число одновременных
+ * запросов для каждого класса эндпоинтов.
+ * <p>
+ * Тяжёлые запросы (аналитика, массовые проверки) получают свои лимиты и не могут занять
+ * все потоки Tomcat и соединения пула, нужные обычным CRUD-запросам.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiRateLimitFilter.class);
+
+    // Массовые операции: проходят по всем автомобилям
+    private static final List<String> BULK_PATHS = List.of(
+            "/admin/notifications/check",
+            "/admin/reminders/check-all"
+    );
+
+    private final Environment environment;
+
+    @Value("${api.limits.enabled:true}")
+    private boolean enabled;
+
+    @Value("${api.limits.max-keys:100000}")
+    private int maxKeys;
+
+    private final Map<EndpointClass, StripedRateLimiter> rateLimiters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, RequestBulkhead> bulkheads = new EnumMap<>(EndpointClass.class);
+
+    @PostConstruct
+    public void init() {
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "api.limits." + endpointClass.propertyName + ".";
+            rateLimiters.put(endpointClass, new StripedRateLimiter(
+                    property(prefix + "per-user-capacity", endpointClass.perUserCapacity),
+                    property(prefix + "per-user-refill-per-minute", endpointClass.perUserRefillPerMinute),
+                    maxKeys));
+            bulkheads.put(endpointClass, new RequestBulkhead(
+                    property(prefix + "max-concurrent", endpointClass.maxConcurrent),
+                    property(prefix + "max-queue", endpointClass.maxQueue),
+                    property(prefix + "queue-timeout-ms", endpointClass.queueTimeoutMs)));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !enabled || !(uri.startsWith("/admin/") || uri.equals("/main"));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        EndpointClass endpointClass = classify(request.getRequestURI());
+        String client = clientKey(request);
+
+        if (!rateLimiters.get(endpointClass).tryAcquire(client)) {
+            logger.warn("Rate limit exceeded for {} on {} endpoint: {} {}",
+                    client, endpointClass, request.getMethod(), request.getRequestURI());
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Слишком много запросов, повторите позже");
+            return;
+        }
+
+        RequestBulkhead bulkhead = bulkheads.get(endpointClass);
+        if (!bulkhead.tryEnter()) {
+            logger.warn("Bulkhead {} is full, rejecting request: {} {}",
+                    endpointClass, request.getMethod(), request.getRequestURI());
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Сервис перегружен, повторите позже");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.exit();
+        }
+    }
+
+    /**
+     * Метрики ограничителей по классам эндпоинтов
+     *
+     * @return метрики
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            Map<String, Object> classStats = new HashMap<>(bulkheads.get(endpointClass).getStats());
+            StripedRateLimiter rateLimiter = rateLimiters.get(endpointClass);
+            classStats.put("rateLimitAllowed", rateLimiter.getAllowedCount());
+            classStats.put("rateLimitRejected", rateLimiter.getRejectedCount());
+            stats.put(endpointClass.propertyName, classStats);
+        }
+        return stats;
+    }
+
+    private EndpointClass classify(String uri) {
+        if (uri.startsWith("/admin/analytics/")) {
+            return EndpointClass.ANALYTICS;
+        }
+        if (BULK_PATHS.contains(uri)) {
+            return EndpointClass.BULK;
+        }
+        return EndpointClass.CRUD;
+    }
+
+    // Аутентифицированный пользователь, иначе адрес клиента
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private int property(String name, int defaultValue) {
+        return environment.getProperty(name, Integer.class, defaultValue);
+    }
+
+    /**
+     * Классы эндпоинтов со значениями лимитов по умолчанию
+     */
+    public enum EndpointClass {
+        ANALYTICS("analytics", 2, 4, 2000, 10, 30),
+        BULK("bulk", 1, 2, 5000, 2, 4),
+        CRUD("crud", 50, 100, 1000, 100, 600);
+
+        private final String propertyName;
+        private final int maxConcurrent;
+        private final int maxQueue;
+        private final int queueTimeoutMs;
+        private final int perUserCapacity;
+        private final int perUserRefillPerMinute;
+
+        EndpointClass(String propertyName, int maxConcurrent, int maxQueue, int queueTimeoutMs,
+                      int perUserCapacity, int perUserRefillPerMinute) {
+            this.propertyName = propertyName;
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.queueTimeoutMs = queueTimeoutMs;
+            this.perUserCapacity = perUserCapacity;
+            this.perUserRefillPerMinute = perUserRefillPerMinute;
+        }
+    }
+}
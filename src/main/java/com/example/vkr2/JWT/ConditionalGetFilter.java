@@ -0,0 +1,101 @@
+package com.example.vkr2.JWT;
+
+import com.example.vkr2.services.TableVersionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Условные GET-запросы для списков и карточек: ETag строится по версиям таблиц,
+ * и при совпадении If-None-Match ответ 304 отдаётся без вызова контроллера и запросов к базе.
+ * <p>
+ * Версия читается до выполнения запроса: если запись произошла во время его обработки,
+ * клиент получит более свежие данные со старым ETag и при следующем запросе - полный ответ.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetFilter extends OncePerRequestFilter {
+
+    // Префикс пути -> таблицы, из которых строится ответ
+    private static final Map<String, List<String>> TABLES_BY_PATH = new LinkedHashMap<>();
+
+    static {
+        TABLES_BY_PATH.put("/admin/cars", List.of("car", "driver"));
+        TABLES_BY_PATH.put("/admin/reminders", List.of("reminder_settings", "car", "service_record", "notifications"));
+        TABLES_BY_PATH.put("/admin/notifications", List.of("notifications", "car"));
+        TABLES_BY_PATH.put("/admin/spare-parts", List.of("spare_part"));
+    }
+
+    private final TableVersionService tableVersionService;
+
+    @Value("${http.conditional-get.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || tablesFor(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        if (!tableVersionService.isTracking()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String etag = tableVersionService.etag(tablesFor(request.getRequestURI()));
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // Клиент хранит ответ, но перед использованием всегда перепроверяет его
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private List<String> tablesFor(String uri) {
+        for (Map.Entry<String, List<String>> entry : TABLES_BY_PATH.entrySet()) {
+            String prefix = entry.getKey();
+            if (uri.equals(prefix) || uri.startsWith(prefix + "/")) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.vkr2.JWT.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+@Schema(description = "Запрос на смену пароля")
+public class ChangePasswordRequest {
+
+    @Schema(description = "Текущий пароль", example = "my_1secret1_password")
+    @NotBlank(message = "Текущий пароль не может быть пустым")
+    private String currentPassword;
+
+    @Schema(description = "Новый пароль", example = "my_2secret2_password")
+    @Size(min = 8, max = 255, message = "Длина пароля должна быть от 8 до 255 символов")
+    @NotBlank(message = "Новый пароль не может быть пустым")
+    private String newPassword;
+}
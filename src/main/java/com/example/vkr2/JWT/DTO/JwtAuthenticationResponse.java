@@ -14,4 +14,7 @@ import lombok.NoArgsConstructor;
 public class JwtAuthenticationResponse {
     @Schema(description = "Токен доступа", example = "eyJhbGciOiJIUzUxMiJ9.eyJzdWIiOiJhZG1pbiIsImV4cCI6MTYyMjUwNj...")
     private String token;
+
+    @Schema(description = "Refresh-токен для получения нового токена доступа", example = "q3Jc1m0pZ8Yx...")
+    private String refreshToken;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.vkr2.JWT.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+@Schema(description = "Запрос на обновление токена доступа")
+public class RefreshTokenRequest {
+
+    @Schema(description = "Refresh-токен", example = "q3Jc1m0pZ8Yx...")
+    @NotBlank(message = "Refresh-токен не может быть пустым")
+    private String refreshToken;
+}
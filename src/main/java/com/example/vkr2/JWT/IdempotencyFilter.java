@@ -0,0 +1,271 @@
+package com.example.vkr2.JWT;
+
+import com.example.vkr2.entity.IdempotencyRecord;
+import com.example.vkr2.services.IdempotencyCommitTracker;
+import com.example.vkr2.services.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Идемпотентные POST-запросы по заголовку Idempotency-Key.
+ * <p>
+ * Ключ действует в пределах пользователя, метода и пути. Повтор с тем же ключом и телом получает
+ * сохранённый ответ (заголовок Idempotent-Replayed) без повторной проверки и записи; с другим телом - 422.
+ * Вместе с телом сохраняются и воспроизводятся заголовки Location и Preference-Applied; тело больше
+ * max-response-bytes не сохраняется, повтор получает статус и заголовки без тела.
+ * Ответы 5xx и исключения не сохраняются, и запрос можно повторить с тем же ключом, только если
+ * запись в базу не была зафиксирована. Иначе сохраняется ответ 500: повтор не выполнит запись второй раз.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String HEADER_NAME = "Idempotency-Key";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyService idempotencyService;
+    private final IdempotencyCommitTracker commitTracker;
+
+    @Value("${idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${idempotency.paths:/admin/fuel-entries,/admin/service-records,/admin/additional-expenses}")
+    private List<String> paths;
+
+    @Value("${idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${idempotency.max-response-bytes:65536}")
+    private int maxResponseBytes;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled
+                || !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER_NAME) == null
+                || !paths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        // Неаутентифицированный запрос будет отклонён дальше по цепочке, ключ не занимаем
+        String username = currentUsername();
+        if (username == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(HEADER_NAME).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, "Некорректный заголовок " + HEADER_NAME);
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        byte[] keyHash = sha256((username + "\n" + request.getMethod() + " " + request.getRequestURI() + "\n" + key)
+                .getBytes(StandardCharsets.UTF_8));
+        byte[] requestHash = sha256(cachedRequest.body);
+
+        IdempotencyService.Outcome outcome = idempotencyService.acquire(keyHash, requestHash, waitTimeoutMs);
+        switch (outcome.type()) {
+            case MISMATCH -> {
+                logger.warn("Idempotency key reused with a different body by {}: {} {}",
+                        username, request.getMethod(), request.getRequestURI());
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "Ключ идемпотентности использован с другим запросом");
+            }
+            case IN_PROGRESS -> {
+                response.setHeader("Retry-After", "1");
+                reject(response, HttpStatus.CONFLICT, "Запрос с этим ключом идемпотентности ещё выполняется");
+            }
+            case REPLAY -> replay(outcome.record(), response);
+            case ACQUIRED -> execute(cachedRequest, response, filterChain, keyHash, outcome.owner());
+        }
+    }
+
+    private void execute(CachedBodyRequest request, HttpServletResponse response,
+                         FilterChain filterChain, byte[] keyHash, UUID owner) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        boolean finished = false;
+        commitTracker.begin();
+        try {
+            filterChain.doFilter(request, cachedResponse);
+            finished = true;
+        } finally {
+            boolean writeCommitted = commitTracker.end();
+            // Исключение, вышедшее из цепочки, контейнер превратит в 500
+            int status = finished ? cachedResponse.getStatus() : HttpStatus.INTERNAL_SERVER_ERROR.value();
+            if (status < 500 || writeCommitted) {
+                store(keyHash, owner, status, finished ? cachedResponse : null, writeCommitted);
+            } else {
+                idempotencyService.release(keyHash, owner);
+            }
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    private void store(byte[] keyHash, UUID owner, int status, ContentCachingResponseWrapper response,
+                       boolean writeCommitted) {
+        String contentType = null;
+        byte[] body = new byte[0];
+        String location = null;
+        String preferenceApplied = null;
+        if (response != null) {
+            location = response.getHeader(HttpHeaders.LOCATION);
+            preferenceApplied = response.getHeader(PREFERENCE_APPLIED);
+            byte[] content = response.getContentAsByteArray();
+            if (content.length <= maxResponseBytes) {
+                contentType = response.getContentType();
+                body = content;
+            } else {
+                logger.warn("Idempotent response of {} bytes exceeds the limit, storing it without a body", content.length);
+            }
+        }
+        // Ответ без зафиксированной записи можно получить повтором, если сохранить его не удалось
+        if (!idempotencyService.complete(keyHash, owner, status, contentType, body, location, preferenceApplied)
+                && !writeCommitted) {
+            idempotencyService.release(keyHash, owner);
+        }
+    }
+
+    private void replay(IdempotencyRecord record, HttpServletResponse response) throws IOException {
+        response.setStatus(record.getResponseStatus());
+        response.setHeader("Idempotent-Replayed", "true");
+        if (record.getResponseContentType() != null) {
+            response.setContentType(record.getResponseContentType());
+        }
+        if (record.getResponseLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, record.getResponseLocation());
+        }
+        if (record.getResponsePreferenceApplied() != null) {
+            response.setHeader(PREFERENCE_APPLIED, record.getResponsePreferenceApplied());
+        }
+        byte[] body = record.getResponseBody();
+        if (body != null && body.length > 0) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    /**
+     * Запрос с заранее прочитанным телом: оно нужно для хэша до передачи запроса контроллеру
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
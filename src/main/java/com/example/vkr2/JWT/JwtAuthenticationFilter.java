@@ -1,6 +1,8 @@
 package com.example.vkr2.JWT;
 
+import com.example.vkr2.JWT.models.JwtPrincipal;
 import com.example.vkr2.JWT.services.JwtService;
+import com.example.vkr2.JWT.services.TokenRevocationService;
 import com.example.vkr2.JWT.services.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -11,6 +13,7 @@ import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -31,6 +34,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     public static final String HEADER_NAME = "Authorization";
     private final JwtService jwtService;
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
+
+    // Аутентификация по claims токена и кэшу пользователей, без запроса к _user на каждый вызов
+    @Value("${auth.stateless.enabled:false}")
+    private boolean statelessAuthEnabled;
 
     @Override
     protected void doFilterInternal(
@@ -53,23 +61,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            // Обрезаем префикс и получаем имя пользователя из токена
+            // Обрезаем префикс и проверяем токен: подпись и срок действия проверяются одним разбором
             var jwt = authHeader.substring(BEARER_PREFIX.length());
             logger.debug("Extracted JWT token for request to {}", requestURI);
 
-            var username = jwtService.extractUserName(jwt);
+            JwtPrincipal principal = jwtService.parseToken(jwt);
+            var username = principal != null ? principal.username() : null;
             logger.debug("Extracted username: {} for request to {}", username, requestURI);
 
-            if (StringUtils.isNotEmpty(username) && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (principal == null) {
+                logger.warn("Invalid JWT token on request: {} {}", method, requestURI);
+            } else if (tokenRevocationService.isRevoked(principal)) {
+                logger.warn("Revoked JWT token {} for user: {} on request: {} {}", principal.tokenId(), username, method, requestURI);
+            } else if (StringUtils.isNotEmpty(username) && SecurityContextHolder.getContext().getAuthentication() == null) {
                 try {
-                    UserDetails userDetails = userService
-                            .userDetailsService()
-                            .loadUserByUsername(username);
+                    UserDetails userDetails = statelessAuthEnabled
+                            ? userService.getByToken(principal)
+                            : userService.userDetailsService().loadUserByUsername(username);
 
-                    logger.debug("Loaded user details for: {}, authorities: {}", username, userDetails.getAuthorities());
+                    // Токен выпущен до смены пароля или удаления пользователя
+                    if (userDetails == null) {
+                        logger.warn("Revoked JWT token for user: {} on request: {} {}", username, method, requestURI);
+                    } else {
+                        logger.debug("Loaded user details for: {}, authorities: {}", username, userDetails.getAuthorities());
 
-                    // Если токен валиден, то аутентифицируем пользователя
-                    if (jwtService.isTokenValid(jwt, userDetails)) {
                         SecurityContext context = SecurityContextHolder.createEmptyContext();
 
                         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
@@ -83,8 +98,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         SecurityContextHolder.setContext(context);
 
                         logger.debug("Successfully authenticated user: {} for request: {} {}", username, method, requestURI);
-                    } else {
-                        logger.warn("Invalid JWT token for user: {} on request: {} {}", username, method, requestURI);
                     }
                 } catch (Exception e) {
                     logger.error("Error loading user details for username: {} on request: {} {}", username, method, requestURI, e);
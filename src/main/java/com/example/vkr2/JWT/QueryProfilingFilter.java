@@ -0,0 +1,57 @@
+package com.example.vkr2.JWT;
+
+import com.example.vkr2.JWT.config.QueryProfiler;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Границы HTTP-запроса для профилировщика SQL. Фильтр стоит перед цепочкой безопасности,
+ * чтобы в счёт попадали и запросы аутентификации.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class QueryProfilingFilter extends OncePerRequestFilter {
+
+    private final QueryProfiler queryProfiler;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !queryProfiler.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        queryProfiler.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            queryProfiler.end(request.getMethod() + " " + endpointOf(request));
+        }
+    }
+
+    // Шаблон маршрута контроллера, иначе путь с заменой числовых идентификаторов
+    private String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return pattern.toString();
+        }
+        return request.getRequestURI().replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+}
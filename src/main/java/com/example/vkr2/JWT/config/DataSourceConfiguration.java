@@ -0,0 +1,87 @@
+package com.example.vkr2.JWT.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Два пула соединений к основной базе: защищённый пул для интерактивных запросов (OLTP)
+ * и отдельный пул с ограничением времени запроса для аналитики и пакетных задач.
+ * При datasource.replica.enabled=true добавляется пул реплики для транзакций только для чтения.
+ */
+@Configuration
+public class DataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource oltpDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("oltp");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.analytics.hikari")
+    public HikariDataSource analyticsDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("analytics");
+        return dataSource;
+    }
+
+    // Реплика для чтения: адрес и учётные данные задаются в datasource.replica.hikari.*
+    @Bean
+    @ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("oltpDataSource") DataSource oltpDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${datasource.replica.max-lag-ms:2000}") long maxLagMs,
+                                               @Value("${datasource.replica.lag-check-interval-ms:1000}") long checkIntervalMs) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(oltpDataSource, replicaDataSource, maxLagMs, checkIntervalMs);
+        monitor.checkLag();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("oltpDataSource") DataSource oltpDataSource,
+                                 @Qualifier("analyticsDataSource") DataSource analyticsDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                                 @Value("${datasource.analytics.transactions:}") List<String> analyticsTransactions,
+                                 @Value("${datasource.replica.read-your-writes-ms:5000}") long readYourWritesMs) {
+        WorkloadRoutingDataSource routingDataSource = new WorkloadRoutingDataSource(
+                analyticsTransactions, replicaLagMonitor.getIfAvailable(), readYourWritesMs);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(WorkloadRoutingDataSource.Workload.OLTP, oltpDataSource);
+        targets.put(WorkloadRoutingDataSource.Workload.ANALYTICS, analyticsDataSource);
+        replicaDataSource.ifAvailable(replica -> targets.put(WorkloadRoutingDataSource.Workload.REPLICA, replica));
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(oltpDataSource);
+        routingDataSource.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.vkr2.JWT.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Профилировщик SQL в рамках HTTP-запроса.
+ * <p>
+ * StatementInspector видит каждый подготавливаемый запрос и приводит его к «форме» (литералы и списки IN
+ * заменены на ?), а TimingListener замеряет выполнение на JDBC и относит время к последней форме этого потока.
+ * По окончании запроса считаются: число запросов на эндпоинт, повторы одной формы (признак N+1)
+ * и запросы дольше порога. Фоновые задачи вне HTTP-запроса не профилируются.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryProfiler implements StatementInspector {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryProfiler.class);
+
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactoryProvider;
+
+    private final Map<String, String> shapeBySql = new ConcurrentHashMap<>();
+    private final Map<String, ShapeStats> shapeStats = new ConcurrentHashMap<>();
+    private final Map<String, EndpointStats> endpointStats = new ConcurrentHashMap<>();
+    private final Map<String, NPlusOneStats> nPlusOneStats = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<SlowStatement> slowStatements = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger slowStatementCount = new AtomicInteger();
+    private final LongAdder requestsProfiled = new LongAdder();
+
+    @Value("${query-profiler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${query-profiler.slow-threshold-ms:200}")
+    private long slowThresholdMs;
+
+    // Столько одинаковых запросов за один HTTP-запрос считается признаком N+1
+    @Value("${query-profiler.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold;
+
+    // Ограничение числа различных форм и эндпоинтов, чтобы не расти без предела
+    @Value("${query-profiler.max-shapes:2000}")
+    private int maxShapes;
+
+    @Value("${query-profiler.max-slow-statements:500}")
+    private int maxSlowStatements;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Начинает профилирование запроса в текущем потоке
+     */
+    public void begin() {
+        CURRENT.set(new RequestProfile(this));
+    }
+
+    /**
+     * Завершает профилирование и переносит результаты запроса в общую статистику
+     */
+    public void end(String endpoint) {
+        RequestProfile profile = CURRENT.get();
+        CURRENT.remove();
+        if (profile == null) {
+            return;
+        }
+        requestsProfiled.increment();
+
+        EndpointStats totals = statsFor(endpointStats, endpoint, EndpointStats::new);
+        if (totals != null) {
+            totals.requests.increment();
+            totals.statements.add(profile.statementCount);
+            totals.jdbcNanos.add(profile.jdbcNanos);
+            totals.maxStatements.accumulateAndGet(profile.statementCount, Math::max);
+        }
+
+        for (Map.Entry<String, Integer> entry : profile.shapeCounts.entrySet()) {
+            int repeats = entry.getValue();
+            if (repeats < nPlusOneThreshold) {
+                continue;
+            }
+            logger.warn("Possible N+1 on {}: {} identical statements: {}", endpoint, repeats, entry.getKey());
+            NPlusOneStats stats = statsFor(nPlusOneStats, endpoint + '\n' + entry.getKey(),
+                    () -> new NPlusOneStats(endpoint, entry.getKey()));
+            if (stats != null) {
+                stats.occurrences.increment();
+                stats.maxRepeats.accumulateAndGet(repeats, Math::max);
+            }
+        }
+
+        for (PendingSlow slow : profile.slowStatements) {
+            logger.warn("Slow statement on {}: {} ms: {}", endpoint, slow.durationMs(), slow.shape());
+            slowStatements.addFirst(new SlowStatement(endpoint, slow.shape(), slow.durationMs(), slow.at()));
+            if (slowStatementCount.incrementAndGet() > maxSlowStatements && slowStatements.pollLast() != null) {
+                slowStatementCount.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            String shape = shapeOf(sql);
+            profile.statementCount++;
+            profile.shapeCounts.merge(shape, 1, Integer::sum);
+            profile.lastShape = shape;
+        }
+        return sql;
+    }
+
+    private void recordExecution(RequestProfile profile, long nanos) {
+        profile.jdbcNanos += nanos;
+        String shape = profile.lastShape;
+        if (shape == null) {
+            return;
+        }
+        ShapeStats stats = statsFor(shapeStats, shape, ShapeStats::new);
+        if (stats != null) {
+            stats.executions.increment();
+            stats.totalNanos.add(nanos);
+            stats.maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+        long durationMs = nanos / 1_000_000;
+        if (durationMs >= slowThresholdMs) {
+            profile.slowStatements.add(new PendingSlow(shape, durationMs, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Рейтинг запросов: по суммарному времени, медленные, повторы N+1, эндпоинты по числу запросов
+     */
+    public Map<String, Object> getReport(int limit) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", enabled);
+        report.put("slowThresholdMs", slowThresholdMs);
+        report.put("nPlusOneThreshold", nPlusOneThreshold);
+        report.put("requestsProfiled", requestsProfiled.sum());
+
+        report.put("topStatements", shapeStats.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, ShapeStats> e) -> e.getValue().totalNanos.sum()).reversed())
+                .limit(limit)
+                .map(e -> {
+                    ShapeStats stats = e.getValue();
+                    long executions = stats.executions.sum();
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("sql", e.getKey());
+                    item.put("executions", executions);
+                    item.put("totalMs", stats.totalNanos.sum() / 1_000_000.0);
+                    item.put("avgMs", executions > 0 ? stats.totalNanos.sum() / 1_000_000.0 / executions : 0.0);
+                    item.put("maxMs", stats.maxNanos.get() / 1_000_000.0);
+                    return item;
+                })
+                .toList());
+
+        report.put("slowStatements", slowStatements.stream()
+                .sorted(Comparator.comparingLong(SlowStatement::durationMs).reversed())
+                .limit(limit)
+                .toList());
+
+        report.put("nPlusOne", nPlusOneStats.values().stream()
+                .sorted(Comparator.comparingLong((NPlusOneStats s) -> s.maxRepeats.get())
+                        .thenComparingLong(s -> s.occurrences.sum()).reversed())
+                .limit(limit)
+                .map(stats -> {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("endpoint", stats.endpoint);
+                    item.put("sql", stats.shape);
+                    item.put("requests", stats.occurrences.sum());
+                    item.put("maxRepeatsPerRequest", stats.maxRepeats.get());
+                    return item;
+                })
+                .toList());
+
+        report.put("endpoints", endpointStats.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<String, EndpointStats> e) -> e.getValue().avgStatements()).reversed())
+                .limit(limit)
+                .map(e -> {
+                    EndpointStats stats = e.getValue();
+                    long requests = stats.requests.sum();
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("endpoint", e.getKey());
+                    item.put("requests", requests);
+                    item.put("avgStatements", stats.avgStatements());
+                    item.put("maxStatements", stats.maxStatements.get());
+                    item.put("avgJdbcMs", requests > 0 ? stats.jdbcNanos.sum() / 1_000_000.0 / requests : 0.0);
+                    return item;
+                })
+                .toList());
+
+        report.put("hibernateQueries", hibernateQueries(limit));
+        return report;
+    }
+
+    /**
+     * Сбрасывает накопленную статистику профилировщика (статистика Hibernate не сбрасывается)
+     */
+    public void reset() {
+        shapeStats.clear();
+        endpointStats.clear();
+        nPlusOneStats.clear();
+        slowStatements.clear();
+        slowStatementCount.set(0);
+        requestsProfiled.reset();
+    }
+
+    // HQL/JPQL-запросы из статистики Hibernate, включая фоновые задачи
+    private List<Map<String, Object>> hibernateQueries(int limit) {
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryProvider.getIfAvailable();
+        if (entityManagerFactory == null) {
+            return List.of();
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return List.of();
+        }
+        return Arrays.stream(statistics.getQueries())
+                .map(query -> Map.entry(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingLong((Map.Entry<String, QueryStatistics> e) -> e.getValue().getExecutionTotalTime()).reversed())
+                .limit(limit)
+                .map(e -> {
+                    QueryStatistics stats = e.getValue();
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("query", e.getKey());
+                    item.put("executions", stats.getExecutionCount());
+                    item.put("totalMs", stats.getExecutionTotalTime());
+                    item.put("avgMs", stats.getExecutionAvgTime());
+                    item.put("maxMs", stats.getExecutionMaxTime());
+                    item.put("rows", stats.getExecutionRowCount());
+                    return item;
+                })
+                .toList();
+    }
+
+    private String shapeOf(String sql) {
+        String shape = shapeBySql.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+        if (shapeBySql.size() < maxShapes) {
+            shapeBySql.put(sql, shape);
+        }
+        return shape;
+    }
+
+    private <T> T statsFor(Map<String, T> map, String key, Supplier<T> factory) {
+        T stats = map.get(key);
+        if (stats != null || map.size() >= maxShapes) {
+            return stats;
+        }
+        return map.computeIfAbsent(key, k -> factory.get());
+    }
+
+    /**
+     * Замер выполнения запросов на JDBC; Hibernate создаёт экземпляр на каждую сессию
+     * (hibernate.session.events.auto), поэтому состояние хранится в профиле потока.
+     */
+    public static class TimingListener implements SessionEventListener {
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            started();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            finished();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            started();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            finished();
+        }
+
+        private static void started() {
+            RequestProfile profile = CURRENT.get();
+            if (profile != null) {
+                profile.executeStartNanos = System.nanoTime();
+            }
+        }
+
+        private static void finished() {
+            RequestProfile profile = CURRENT.get();
+            if (profile != null && profile.executeStartNanos != 0) {
+                profile.owner.recordExecution(profile, System.nanoTime() - profile.executeStartNanos);
+                profile.executeStartNanos = 0;
+            }
+        }
+    }
+
+    private static class RequestProfile {
+        private final QueryProfiler owner;
+        private final Map<String, Integer> shapeCounts = new HashMap<>();
+        private final List<PendingSlow> slowStatements = new ArrayList<>();
+        private int statementCount;
+        private long jdbcNanos;
+        private long executeStartNanos;
+        private String lastShape;
+
+        private RequestProfile(QueryProfiler owner) {
+            this.owner = owner;
+        }
+    }
+
+    private static class ShapeStats {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+    }
+
+    private static class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder jdbcNanos = new LongAdder();
+        private final AtomicLong maxStatements = new AtomicLong();
+
+        private double avgStatements() {
+            long count = requests.sum();
+            return count > 0 ? (double) statements.sum() / count : 0.0;
+        }
+    }
+
+    private static class NPlusOneStats {
+        private final String endpoint;
+        private final String shape;
+        private final LongAdder occurrences = new LongAdder();
+        private final AtomicLong maxRepeats = new AtomicLong();
+
+        private NPlusOneStats(String endpoint, String shape) {
+            this.endpoint = endpoint;
+            this.shape = shape;
+        }
+    }
+
+    private record PendingSlow(String shape, long durationMs, LocalDateTime at) {
+    }
+
+    public record SlowStatement(String endpoint, String sql, long durationMs, LocalDateTime at) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.vkr2.JWT.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Подключает профилировщик SQL к Hibernate: инспектор запросов и замер выполнения на JDBC
+ */
+@Configuration
+public class QueryProfilerConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryProfilerCustomizer(QueryProfiler queryProfiler) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryProfiler);
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryProfiler.TimingListener.class.getName());
+        };
+    }
+}
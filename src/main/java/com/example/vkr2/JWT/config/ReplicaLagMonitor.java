@@ -0,0 +1,94 @@
+package com.example.vkr2.JWT.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Контроль отставания реплики.
+ * <p>
+ * Если отставание больше допустимого или реплика недоступна, чтение идёт с основной базы.
+ * Позиция применённого репликой WAL сравнивается с текущей позицией WAL основной базы, прочитанной
+ * непосредственно перед этим: сравнение с принятым самой репликой WAL не замечает отставания
+ * приёма. Если реплика дошла до этой позиции, отставание нулевое, иначе - время с момента последней
+ * применённой транзакции. Для отдельного экземпляра PostgreSQL без репликации функции реплики
+ * возвращают NULL, и отставание тоже нулевое.
+ * Результат проверки действует несколько интервалов проверки: если планировщик занят другими задачами
+ * и проверка не выполняется, реплика перестаёт использоваться.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // Через сколько интервалов проверки её результат считается устаревшим
+    private static final int STALE_AFTER_INTERVALS = 3;
+
+    private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+
+    private static final String LAG_QUERY = "SELECT CASE " +
+            "WHEN pg_last_wal_replay_lsn() IS NULL OR pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagMs;
+    private final long maxCheckAgeNanos;
+
+    private volatile boolean replicaUsable;
+    private volatile long lastLagMs = -1;
+    // Время последней успешной проверки по System.nanoTime()
+    private volatile long lastCheckNanos;
+
+    /**
+     * @param maxLagMs        допустимое отставание реплики
+     * @param checkIntervalMs интервал проверки отставания
+     */
+    public ReplicaLagMonitor(DataSource primaryDataSource, DataSource replicaDataSource,
+                             long maxLagMs, long checkIntervalMs) {
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.maxLagMs = maxLagMs;
+        this.maxCheckAgeNanos = TimeUnit.MILLISECONDS.toNanos(checkIntervalMs * STALE_AFTER_INTERVALS);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable && System.nanoTime() - lastCheckNanos <= maxCheckAgeNanos;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        try {
+            String primaryLsn = primaryJdbcTemplate.queryForObject(PRIMARY_LSN_QUERY, String.class);
+            Number lag = replicaJdbcTemplate.queryForObject(LAG_QUERY, Number.class, primaryLsn);
+            lastLagMs = lag != null ? lag.longValue() : 0;
+            boolean usable = lastLagMs <= maxLagMs;
+            if (usable != replicaUsable) {
+                logger.info("Replica {} for reads, lag {} ms", usable ? "enabled" : "disabled", lastLagMs);
+            }
+            lastCheckNanos = System.nanoTime();
+            replicaUsable = usable;
+        } catch (Exception e) {
+            if (replicaUsable) {
+                logger.warn("Replica lag check failed, reads go to primary: {}", e.getMessage());
+            }
+            replicaUsable = false;
+            lastLagMs = -1;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("usable", isReplicaUsable());
+        stats.put("lastCheckAgeMs", lastCheckNanos == 0
+                ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastCheckNanos));
+        stats.put("lagMs", lastLagMs);
+        stats.put("maxLagMs", maxLagMs);
+        return stats;
+    }
+}
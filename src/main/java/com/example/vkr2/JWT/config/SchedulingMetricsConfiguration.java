@@ -0,0 +1,22 @@
+package com.example.vkr2.JWT.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Длительность запусков @Scheduled-задач (метрика tasks.scheduled.execution с тегами code.namespace, code.function)
+ */
+@Configuration
+@RequiredArgsConstructor
+public class SchedulingMetricsConfiguration implements SchedulingConfigurer {
+
+    private final ObservationRegistry observationRegistry;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setObservationRegistry(observationRegistry);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.vkr2.JWT.config;
 
+import com.example.vkr2.JWT.ApiRateLimitFilter;
+import com.example.vkr2.JWT.IdempotencyFilter;
 import com.example.vkr2.JWT.JwtAuthenticationFilter;
 import com.example.vkr2.JWT.services.UserService;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +17,7 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.expression.WebExpressionAuthorizationManager;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 
@@ -27,6 +30,8 @@ import static org.springframework.security.config.http.SessionCreationPolicy.STA
 @RequiredArgsConstructor
 public class SecurityConfiguration {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ApiRateLimitFilter apiRateLimitFilter;
+    private final IdempotencyFilter idempotencyFilter;
     private final UserService userService;
 
     @Bean
@@ -44,13 +49,23 @@ public class SecurityConfiguration {
                 }))
                 .authorizeHttpRequests(request -> request
                         .requestMatchers("/auth/**").permitAll()
+                        // Ответы об ошибках (в том числе 429) не должны подменяться на 403
+                        .requestMatchers("/error").permitAll()
                         .requestMatchers("/swagger-ui/**", "/swagger-resources/*", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
+                        // Метрики снимаются локальным Prometheus без токена; извне недоступны
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").access(
+                                new WebExpressionAuthorizationManager("hasIpAddress('127.0.0.1') or hasIpAddress('::1')"))
                         .requestMatchers("/admin/**").authenticated()
                         .requestMatchers("/main").authenticated()
                         .anyRequest().authenticated())
                 .sessionManagement(manager -> manager.sessionCreationPolicy(STATELESS))
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Лимиты применяются после аутентификации, чтобы считать запросы по пользователю
+                .addFilterAfter(apiRateLimitFilter, JwtAuthenticationFilter.class)
+                // Ключ идемпотентности привязан к пользователю
+                .addFilterAfter(idempotencyFilter, ApiRateLimitFilter.class);
         return http.build();
     }
 
@@ -0,0 +1,43 @@
+package com.example.vkr2.JWT.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Таймеры публичных методов сервисов (метрика service.method с тегами class, method, exception).
+ * <p>
+ * Гистограммы задаются свойствами management.metrics.distribution.*.service.method. Вызовы внутри
+ * одного сервиса (this.method()) через прокси не проходят и отдельно не измеряются.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    public static final String METRIC_NAME = "service.method";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.example.vkr2.services..*(..)) || execution(public * com.example.vkr2.JWT.services..*(..))")
+    public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
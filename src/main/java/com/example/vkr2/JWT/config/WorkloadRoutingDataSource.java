@@ -0,0 +1,112 @@
+package com.example.vkr2.JWT.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Выбор пула соединений по текущей транзакции.
+ * <p>
+ * Имя транзакции Spring - это "класс.метод" с аннотацией @Transactional, поэтому аналитические
+ * и пакетные пути задаются списком префиксов в настройках, без изменения сервисов.
+ * Остальные транзакции только для чтения идут на реплику, если она подключена и не отстаёт,
+ * а пользователь не выполнял запись в последние несколько секунд (чтение своих записей).
+ * Работает только за {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * соединение должно браться при первом запросе, когда транзакция уже объявлена.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final int MAX_TRACKED_WRITERS = 10_000;
+
+    public enum Workload {
+        OLTP,
+        ANALYTICS,
+        REPLICA
+    }
+
+    private final List<String> analyticsTransactionPrefixes;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final long readYourWritesMs;
+
+    // Время последней зафиксированной записи по пользователю
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    /**
+     * @param analyticsTransactionPrefixes префиксы имён транзакций для пула аналитики
+     * @param replicaLagMonitor            контроль реплики, null - реплика не подключена
+     * @param readYourWritesMs             сколько читать с основной базы после записи пользователя
+     */
+    public WorkloadRoutingDataSource(List<String> analyticsTransactionPrefixes,
+                                     ReplicaLagMonitor replicaLagMonitor,
+                                     long readYourWritesMs) {
+        // Пустая строка из пустой настройки совпала бы с любой транзакцией
+        this.analyticsTransactionPrefixes = analyticsTransactionPrefixes.stream()
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .toList();
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.readYourWritesMs = readYourWritesMs;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentWorkload();
+    }
+
+    protected Workload currentWorkload() {
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (transactionName != null) {
+            for (String prefix : analyticsTransactionPrefixes) {
+                if (transactionName.startsWith(prefix)) {
+                    return Workload.ANALYTICS;
+                }
+            }
+        }
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return Workload.OLTP;
+        }
+
+        if (replicaLagMonitor != null && replicaLagMonitor.isReplicaUsable() && !wroteRecently(currentUser())) {
+            return Workload.REPLICA;
+        }
+        return Workload.OLTP;
+    }
+
+    private void trackWrite() {
+        String username = currentUser();
+        if (replicaLagMonitor == null || username == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long now = System.currentTimeMillis();
+                if (lastWriteByUser.size() > MAX_TRACKED_WRITERS) {
+                    lastWriteByUser.values().removeIf(time -> time < now - readYourWritesMs);
+                }
+                lastWriteByUser.put(username, now);
+            }
+        });
+    }
+
+    private boolean wroteRecently(String username) {
+        if (username == null) {
+            return false;
+        }
+        Long lastWrite = lastWriteByUser.get(username);
+        return lastWrite != null && lastWrite > System.currentTimeMillis() - readYourWritesMs;
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
@@ -2,7 +2,10 @@ package com.example.vkr2.JWT.controllers;
 
 import com.example.vkr2.DTO.AdditionalExpenseRequest;
 import com.example.vkr2.DTO.AdditionalExpenseResponse;
+import com.example.vkr2.DTO.WriteOperationResponse;
+import com.example.vkr2.entity.WriteOperation;
 import com.example.vkr2.services.AdditionalExpenseService;
+import com.example.vkr2.services.AsyncWriteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.persistence.EntityNotFoundException;
@@ -15,6 +18,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -27,11 +31,22 @@ public class AdditionalExpenseController {
 
     private static final Logger logger = LoggerFactory.getLogger(AdditionalExpenseController.class);
     private final AdditionalExpenseService additionalExpenseService;
+    private final AsyncWriteService asyncWriteService;
 
-    @Operation(summary = "Добавить дополнительный расход")
+    @Operation(summary = "Добавить дополнительный расход",
+            description = "С заголовком Prefer: respond-async запрос ставится в очередь и возвращается 202 с ID операции")
     @PostMapping
-    public ResponseEntity<AdditionalExpenseResponse> addAdditionalExpense(@RequestBody @Valid AdditionalExpenseRequest request) {
+    public ResponseEntity<Object> addAdditionalExpense(@RequestBody @Valid AdditionalExpenseRequest request,
+                                                       @RequestHeader(value = "Prefer", required = false) String prefer) {
         try {
+            if (asyncWriteService.isAsyncRequested(prefer)) {
+                WriteOperationResponse operation = asyncWriteService.enqueue(
+                        WriteOperation.Type.ADDITIONAL_EXPENSE, request.getCarId(), request);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/admin/operations/" + operation.getOperationId()))
+                        .header("Preference-Applied", "respond-async")
+                        .body(operation);
+            }
             logger.info("Добавление дополнительного расхода: {}", request);
             AdditionalExpenseResponse response = additionalExpenseService.addAdditionalExpense(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -0,0 +1,35 @@
+package com.example.vkr2.JWT.controllers;
+
+import com.example.vkr2.JWT.ApiRateLimitFilter;
+import com.example.vkr2.services.IdempotencyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/limits")
+@RequiredArgsConstructor
+@Tag(name = "Лимиты API")
+public class ApiLimitsController {
+
+    private final ApiRateLimitFilter apiRateLimitFilter;
+    private final IdempotencyService idempotencyService;
+
+    @Operation(summary = "Статистика ограничения частоты и одновременных запросов по классам эндпоинтов")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(apiRateLimitFilter.getStats());
+    }
+
+    @Operation(summary = "Статистика ключей идемпотентности: выполнено, повторено из хранилища, схлопнуто одновременных")
+    @GetMapping("/idempotency")
+    public ResponseEntity<Map<String, Object>> getIdempotencyStats() {
+        return ResponseEntity.ok(idempotencyService.getStats());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.vkr2.JWT.controllers;
+
+import com.example.vkr2.DTO.AuditLogResponse;
+import com.example.vkr2.services.AuditLogService;
+import com.example.vkr2.services.AuditLogWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/audit")
+@RequiredArgsConstructor
+@Tag(name = "Журнал аудита")
+public class AuditLogController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogController.class);
+    private final AuditLogService auditLogService;
+    private final AuditLogWriter auditLogWriter;
+
+    @Operation(summary = "Получить журнал изменений с фильтрами (новые записи первыми)")
+    @GetMapping
+    public ResponseEntity<List<AuditLogResponse>> getAuditLog(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String entityId,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            Page<AuditLogResponse> entries = auditLogService.getAuditLog(entityType, entityId, username, from, to, page, size);
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(entries.getTotalElements()))
+                    .body(entries.getContent());
+        } catch (Exception e) {
+            logger.error("Ошибка при получении журнала аудита: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(summary = "Состояние буфера аудита: записано, потеряно, ожидания при переполнении")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(auditLogWriter.getStats());
+    }
+}
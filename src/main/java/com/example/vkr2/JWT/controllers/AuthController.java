@@ -1,17 +1,24 @@
 package com.example.vkr2.JWT.controllers;
 
+import com.example.vkr2.JWT.DTO.ChangePasswordRequest;
 import com.example.vkr2.JWT.DTO.JwtAuthenticationResponse;
+import com.example.vkr2.JWT.DTO.RefreshTokenRequest;
 import com.example.vkr2.JWT.DTO.SignInRequest;
 import com.example.vkr2.JWT.DTO.SignUpRequest;
+import com.example.vkr2.JWT.JwtAuthenticationFilter;
 import com.example.vkr2.JWT.services.AuthenticationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
 
 @RestController
 @RequestMapping("/auth")
@@ -22,13 +29,64 @@ public class AuthController {
 
     @Operation(summary = "Регистрация пользователя")
     @PostMapping("/sign-up")
-    public JwtAuthenticationResponse signUp(@RequestBody @Valid SignUpRequest request) {
-        return authenticationService.signUp(request);
+    public JwtAuthenticationResponse signUp(@RequestBody @Valid SignUpRequest request, HttpServletRequest httpRequest) {
+        return authenticationService.signUp(request, httpRequest.getRemoteAddr());
     }
 
     @Operation(summary = "Авторизация пользователя")
     @PostMapping("/sign-in")
-    public JwtAuthenticationResponse signIn(@RequestBody @Valid SignInRequest request) {
-        return authenticationService.signIn(request);
+    public JwtAuthenticationResponse signIn(@RequestBody @Valid SignInRequest request, HttpServletRequest httpRequest) {
+        return authenticationService.signIn(request, httpRequest.getRemoteAddr());
+    }
+
+    @Operation(summary = "Обновление токена доступа по refresh-токену")
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtAuthenticationResponse> refresh(@RequestBody @Valid RefreshTokenRequest request) {
+        try {
+            return ResponseEntity.ok(authenticationService.refresh(request));
+        } catch (BadCredentialsException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    @Operation(summary = "Выход пользователя (отзыв текущего токена и refresh-токенов: переданной цепочки или всех)")
+    @PostMapping("/sign-out")
+    public ResponseEntity<Void> signOut(@RequestHeader(JwtAuthenticationFilter.HEADER_NAME) String authHeader,
+                                        @RequestBody(required = false) @Valid RefreshTokenRequest request) {
+        if (!StringUtils.startsWith(authHeader, JwtAuthenticationFilter.BEARER_PREFIX)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            authenticationService.signOut(authHeader.substring(JwtAuthenticationFilter.BEARER_PREFIX.length()),
+                    request != null ? request.getRefreshToken() : null);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Смена пароля текущего пользователя (ранее выпущенные токены отзываются)")
+    @PostMapping("/change-password")
+    public ResponseEntity<Void> changePassword(@RequestBody @Valid ChangePasswordRequest request,
+                                               Principal principal, HttpServletRequest httpRequest) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            authenticationService.changePassword(principal.getName(), request, httpRequest.getRemoteAddr());
+            return ResponseEntity.noContent().build();
+        } catch (BadCredentialsException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    @Operation(summary = "Удаление учётной записи текущего пользователя")
+    @DeleteMapping("/account")
+    public ResponseEntity<Void> deleteAccount(Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        authenticationService.deleteAccount(principal.getName());
+        return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+}
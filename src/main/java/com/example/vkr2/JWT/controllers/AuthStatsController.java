@@ -0,0 +1,27 @@
+package com.example.vkr2.JWT.controllers;
+
+import com.example.vkr2.JWT.services.AuthenticationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/auth")
+@RequiredArgsConstructor
+@Tag(name = "Аутентификация")
+public class AuthStatsController {
+
+    private final AuthenticationService authenticationService;
+
+    @Operation(summary = "Статистика хеширования паролей и ограничения попыток входа")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(authenticationService.getStats());
+    }
+}
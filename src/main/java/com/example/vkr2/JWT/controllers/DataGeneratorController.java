@@ -0,0 +1,50 @@
+package com.example.vkr2.JWT.controllers;
+
+import com.example.vkr2.DTO.FleetGenerationRequest;
+import com.example.vkr2.services.FleetDataGenerator;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/generator")
+@RequiredArgsConstructor
+@Tag(name = "Генератор тестовых данных")
+public class DataGeneratorController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataGeneratorController.class);
+    private final FleetDataGenerator fleetDataGenerator;
+
+    @Operation(summary = "Запустить генерацию синтетического автопарка (только на тестовой базе)")
+    @PostMapping("/fleet")
+    public ResponseEntity<Map<String, Object>> generateFleet(@RequestBody @Valid FleetGenerationRequest request) {
+        if (!fleetDataGenerator.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Генератор отключён (data-generator.enabled=false)"));
+        }
+        try {
+            if (!fleetDataGenerator.startAsync(request)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(fleetDataGenerator.getStatus());
+            }
+            logger.info("Запущена генерация синтетического автопарка: {} автомобилей", request.getCars());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(fleetDataGenerator.getStatus());
+        } catch (Exception e) {
+            logger.error("Ошибка при запуске генерации данных: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(summary = "Состояние генерации и количество вставленных строк")
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(fleetDataGenerator.getStatus());
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.vkr2.JWT.controllers;
+
+import com.example.vkr2.services.CacheStatsService;
+import com.example.vkr2.services.ConnectionPoolStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/datasource")
+@RequiredArgsConstructor
+@Tag(name = "База данных")
+public class DataSourceController {
+
+    private final ConnectionPoolStatsService connectionPoolStatsService;
+    private final CacheStatsService cacheStatsService;
+
+    @Operation(summary = "Заполненность пулов соединений")
+    @GetMapping("/pools")
+    public ResponseEntity<Map<String, Object>> getPoolStats() {
+        return ResponseEntity.ok(connectionPoolStatsService.getPoolStats());
+    }
+
+    @Operation(summary = "Доля попаданий в кэш второго уровня Hibernate по регионам")
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getCacheStats());
+    }
+}
@@ -2,7 +2,10 @@ package com.example.vkr2.JWT.controllers;
 
 import com.example.vkr2.DTO.FuelEntryRequest;
 import com.example.vkr2.DTO.FuelEntryResponse;
+import com.example.vkr2.DTO.WriteOperationResponse;
 import com.example.vkr2.entity.FuelEntry;
+import com.example.vkr2.entity.WriteOperation;
+import com.example.vkr2.services.AsyncWriteService;
 import com.example.vkr2.services.FuelEntryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,11 +14,13 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Collections;
@@ -29,11 +34,22 @@ public class FuelEntryController {
 
     private static final Logger logger = LoggerFactory.getLogger(FuelEntryController.class);
     private final FuelEntryService fuelEntryService;
+    private final AsyncWriteService asyncWriteService;
 
-    @Operation(summary = "Добавить запись о заправке")
+    @Operation(summary = "Добавить запись о заправке",
+            description = "С заголовком Prefer: respond-async запрос ставится в очередь и возвращается 202 с ID операции")
     @PostMapping
-    public ResponseEntity<FuelEntryResponse> addFuelEntry(@RequestBody @Valid FuelEntryRequest request) {
+    public ResponseEntity<Object> addFuelEntry(@RequestBody @Valid FuelEntryRequest request,
+                                               @RequestHeader(value = "Prefer", required = false) String prefer) {
         try {
+            if (asyncWriteService.isAsyncRequested(prefer)) {
+                WriteOperationResponse operation = asyncWriteService.enqueue(
+                        WriteOperation.Type.FUEL_ENTRY, request.getCarId(), request);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/admin/operations/" + operation.getOperationId()))
+                        .header("Preference-Applied", "respond-async")
+                        .body(operation);
+            }
             logger.info("Добавление заправки: {}", request);
             FuelEntryResponse response = fuelEntryService.addFuelEntry(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -165,21 +181,18 @@ public class FuelEntryController {
         }
     }
 
-    @Operation(summary = "Получить заправки по автомобилю")
+    @Operation(summary = "Получить заправки по автомобилю (страница не больше 500 записей)")
     @GetMapping("/car/{carId}")
-    public ResponseEntity<List<FuelEntryResponse>> getFuelEntriesByCarId(@PathVariable Long carId) {
+    public ResponseEntity<List<FuelEntryResponse>> getFuelEntriesByCarId(
+            @PathVariable Long carId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
         try {
-            logger.info("Получение заправок для автомобиля ID: {}", carId);
-            // Используем фильтр с указанием только carId
-            List<FuelEntryResponse> entries = fuelEntryService.getFuelEntriesWithFilters(
-                    null, null, null, null, null, null, null);
-
-            // Фильтруем по carId на уровне контроллера
-            List<FuelEntryResponse> filteredEntries = entries.stream()
-                    .filter(entry -> entry.getCarDetails().contains("")) // Можно добавить более точную фильтрацию
-                    .toList();
-
-            return ResponseEntity.ok(filteredEntries);
+            logger.info("Получение заправок для автомобиля ID: {}, страница {}", carId, page);
+            Page<FuelEntryResponse> entries = fuelEntryService.getFuelEntriesByCarId(carId, page, size);
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(entries.getTotalElements()))
+                    .body(entries.getContent());
         } catch (Exception e) {
             logger.error("Ошибка при получении заправок по автомобилю: {}", e.getMessage(), e);
             return ResponseEntity.ok(Collections.emptyList());
@@ -191,28 +204,7 @@ public class FuelEntryController {
     public ResponseEntity<Map<String, Object>> getFuelEntryStats(@PathVariable Long carId) {
         try {
             logger.info("Получение статистики заправок для автомобиля ID: {}", carId);
-
-            // Получаем все заправки и фильтруем по carId
-            List<FuelEntryResponse> allEntries = fuelEntryService.getAllFuelEntries();
-
-            // Здесь можно добавить логику для подсчета статистики
-            long totalEntries = allEntries.size();
-            double totalCost = allEntries.stream()
-                    .mapToDouble(entry -> entry.getTotalCost() != null ? entry.getTotalCost() : 0.0)
-                    .sum();
-            double totalVolume = allEntries.stream()
-                    .mapToDouble(entry -> entry.getVolume() != null ? entry.getVolume() : 0.0)
-                    .sum();
-
-            Map<String, Object> stats = Map.of(
-                    "totalEntries", totalEntries,
-                    "totalCost", totalCost,
-                    "totalVolume", totalVolume,
-                    "averageCostPerLiter", totalVolume > 0 ? totalCost / totalVolume : 0.0,
-                    "carId", carId
-            );
-
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(fuelEntryService.getFuelEntryStats(carId));
         } catch (Exception e) {
             logger.error("Ошибка при получении статистики заправок: {}", e.getMessage(), e);
             return ResponseEntity.ok(Map.of(
@@ -220,6 +212,7 @@ public class FuelEntryController {
                     "totalCost", 0.0,
                     "totalVolume", 0.0,
                     "averageCostPerLiter", 0.0,
+                    "consumptionPer100Km", 0.0,
                     "carId", carId
             ));
         }
@@ -0,0 +1,89 @@
+package com.example.vkr2.JWT.controllers;
+
+import com.example.vkr2.DTO.OdometerReadingDTO;
+import com.example.vkr2.DTO.OdometerTelemetryRequest;
+import com.example.vkr2.services.OdometerTelemetryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/telemetry/odometer")
+@RequiredArgsConstructor
+@Tag(name = "Телеметрия одометра")
+public class OdometerTelemetryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OdometerTelemetryController.class);
+    private final OdometerTelemetryService odometerTelemetryService;
+
+    @Operation(summary = "Записать пакет показаний одометра")
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> appendReadings(@RequestBody @Valid OdometerTelemetryRequest request) {
+        try {
+            int saved = odometerTelemetryService.appendReadings(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("carId", request.getCarId(), "saved", saved));
+        } catch (EntityNotFoundException e) {
+            logger.error("Автомобиль не найден при записи телеметрии: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (Exception e) {
+            logger.error("Ошибка при записи телеметрии: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(summary = "Получить показания одометра за период")
+    @GetMapping("/car/{carId}")
+    public ResponseEntity<List<OdometerReadingDTO>> getReadings(
+            @PathVariable Long carId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(odometerTelemetryService.getReadings(carId, from, to));
+        } catch (Exception e) {
+            logger.error("Ошибка при получении телеметрии: {}", e.getMessage(), e);
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+    }
+
+    @Operation(summary = "Получить прореженные показания одометра за период")
+    @GetMapping("/car/{carId}/downsampled")
+    public ResponseEntity<List<OdometerReadingDTO>> getDownsampledReadings(
+            @PathVariable Long carId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "60") int intervalMinutes) {
+        try {
+            return ResponseEntity.ok(odometerTelemetryService.getDownsampledReadings(carId, from, to, intervalMinutes));
+        } catch (IllegalArgumentException e) {
+            logger.error("Некорректный интервал прореживания: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        } catch (Exception e) {
+            logger.error("Ошибка при получении прореженной телеметрии: {}", e.getMessage(), e);
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+    }
+
+    @Operation(summary = "Получить статистику хранения телеметрии автомобиля")
+    @GetMapping("/car/{carId}/stats")
+    public ResponseEntity<Map<String, Object>> getStorageStats(@PathVariable Long carId) {
+        try {
+            return ResponseEntity.ok(odometerTelemetryService.getStorageStats(carId));
+        } catch (Exception e) {
+            logger.error("Ошибка при получении статистики телеметрии: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
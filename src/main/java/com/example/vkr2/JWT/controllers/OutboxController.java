@@ -0,0 +1,43 @@
+package com.example.vkr2.JWT.controllers;
+
+import com.example.vkr2.services.OutboxRelay;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/outbox")
+@RequiredArgsConstructor
+@Tag(name = "Доменные события")
+public class OutboxController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxController.class);
+    private final OutboxRelay outboxRelay;
+
+    @Operation(summary = "Очередь доменных событий: ожидающие, с ошибкой, доставленные")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(outboxRelay.getStats());
+    }
+
+    @Operation(summary = "Повторить доставку событий, исчерпавших попытки")
+    @PostMapping("/retry-failed")
+    public ResponseEntity<Map<String, Object>> retryFailed() {
+        try {
+            return ResponseEntity.ok(Map.of("requeued", outboxRelay.retryFailed()));
+        } catch (Exception e) {
+            logger.error("Ошибка при повторной постановке событий в очередь: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
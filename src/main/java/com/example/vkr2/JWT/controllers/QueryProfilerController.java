@@ -0,0 +1,36 @@
+package com.example.vkr2.JWT.controllers;
+
+import com.example.vkr2.JWT.config.QueryProfiler;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/query-profile")
+@RequiredArgsConstructor
+@Tag(name = "Профилирование SQL")
+public class QueryProfilerController {
+
+    private final QueryProfiler queryProfiler;
+
+    @Operation(summary = "Самые дорогие запросы, медленные запросы, повторы N+1 и эндпоинты по числу запросов")
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getReport(@RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > 500) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return ResponseEntity.ok(queryProfiler.getReport(limit));
+    }
+
+    @Operation(summary = "Сбросить накопленную статистику профилировщика")
+    @PostMapping("/reset")
+    public ResponseEntity<Void> reset() {
+        queryProfiler.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.vkr2.JWT.controllers;
+
+import com.example.vkr2.services.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/sync")
+@RequiredArgsConstructor
+@Tag(name = "Синхронизация")
+public class SyncController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncController.class);
+    private final SyncService syncService;
+
+    @Operation(summary = "Получить изменения автомобилей, заправок, ТО, расходов, запчастей и уведомлений после курсора")
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(syncService.getChanges(since, limit));
+        } catch (Exception e) {
+            logger.error("Ошибка при получении изменений после курсора {}: {}", since, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(summary = "Получить текущий курсор перед полной загрузкой данных")
+    @GetMapping("/cursor")
+    public ResponseEntity<Map<String, Object>> getCursor() {
+        try {
+            return ResponseEntity.ok(Map.of("cursor", syncService.getHeadCursor()));
+        } catch (Exception e) {
+            logger.error("Ошибка при получении курсора синхронизации: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
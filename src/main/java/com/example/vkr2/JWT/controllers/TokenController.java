@@ -0,0 +1,34 @@
+package com.example.vkr2.JWT.controllers;
+
+import com.example.vkr2.JWT.services.TokenRevocationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/tokens")
+@RequiredArgsConstructor
+@Tag(name = "Токены")
+public class TokenController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenController.class);
+    private final TokenRevocationService tokenRevocationService;
+
+    @Operation(summary = "Принудительно отозвать токен по идентификатору (jti)")
+    @PostMapping("/{jti}/revoke")
+    public ResponseEntity<Void> revokeToken(@PathVariable String jti,
+                                            @RequestParam(required = false) String username) {
+        try {
+            tokenRevocationService.revoke(jti, username, null);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            logger.error("Ошибка при отзыве токена {}: {}", jti, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
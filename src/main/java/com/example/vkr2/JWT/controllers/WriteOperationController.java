@@ -0,0 +1,48 @@
+package com.example.vkr2.JWT.controllers;
+
+import com.example.vkr2.DTO.WriteOperationResponse;
+import com.example.vkr2.services.AsyncWriteService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/operations")
+@RequiredArgsConstructor
+@Tag(name = "Отложенные операции")
+public class WriteOperationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteOperationController.class);
+    private final AsyncWriteService asyncWriteService;
+
+    @Operation(summary = "Получить состояние операции, принятой с ответом 202")
+    @GetMapping("/{operationId}")
+    public ResponseEntity<WriteOperationResponse> getOperation(@PathVariable String operationId) {
+        try {
+            return ResponseEntity.ok(asyncWriteService.getOperation(operationId));
+        } catch (EntityNotFoundException e) {
+            logger.error("Операция не найдена: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (Exception e) {
+            logger.error("Ошибка при получении операции {}: {}", operationId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(summary = "Очередь отложенных операций записи")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(asyncWriteService.getStats());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.vkr2.JWT.models;
+
+import java.util.Date;
+
+/**
+ * Данные проверенного токена
+ *
+ * @param tokenId    идентификатор токена (jti)
+ * @param username   имя пользователя (subject)
+ * @param id         идентификатор пользователя
+ * @param email      адрес электронной почты
+ * @param issuedAt   дата выпуска токена
+ * @param expiration дата истечения токена
+ */
+public record JwtPrincipal(String tokenId, String username, Long id, String email, Date issuedAt, Date expiration) {
+}
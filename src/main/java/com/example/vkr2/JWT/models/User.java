@@ -1,11 +1,15 @@
 package com.example.vkr2.JWT.models;
 
+import com.example.vkr2.entity.CacheInvalidationListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -14,6 +18,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@EntityListeners(CacheInvalidationListener.class)
 @Table(name = "_user")
 public class User implements UserDetails {
 
@@ -24,6 +31,10 @@ public class User implements UserDetails {
     private String email;
     private String password;
 
+    // Токены, выпущенные раньше этого момента (смена пароля), не принимаются - в том числе после перезапуска
+    @Column(name = "tokens_valid_after")
+    private LocalDateTime tokensValidAfter;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         // Простая роль для всех пользователей
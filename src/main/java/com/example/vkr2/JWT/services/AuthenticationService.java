@@ -1,63 +1,156 @@
 package com.example.vkr2.JWT.services;
 
+import com.example.vkr2.JWT.DTO.ChangePasswordRequest;
 import com.example.vkr2.JWT.DTO.JwtAuthenticationResponse;
+import com.example.vkr2.JWT.DTO.RefreshTokenRequest;
 import com.example.vkr2.JWT.DTO.SignInRequest;
 import com.example.vkr2.JWT.DTO.SignUpRequest;
+import com.example.vkr2.JWT.models.JwtPrincipal;
 import com.example.vkr2.JWT.models.User;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
+    private static final Logger logger = LoggerFactory.getLogger(AuthenticationService.class);
+
     private final UserService userService;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final LoginRateLimiter loginRateLimiter;
 
     /**
      * Регистрация пользователя
      *
-     * @param request данные пользователя
+     * @param request  данные пользователя
+     * @param clientIp адрес клиента
      * @return токен
      */
-    public JwtAuthenticationResponse signUp(SignUpRequest request) {
-        System.out.println("Registering user: " + request.getUsername());
+    public JwtAuthenticationResponse signUp(SignUpRequest request, String clientIp) {
+        logger.debug("Registering user: {}", request.getUsername());
+        loginRateLimiter.checkAttempt(request.getUsername(), clientIp);
+
+        String encodedPassword = passwordHashingExecutor.execute(() -> passwordEncoder.encode(request.getPassword()));
         var user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(encodedPassword)
                 .build();
 
         userService.create(user);
 
-        var jwt = jwtService.generateToken(user);
-        System.out.println("Generated token: " + jwt);
-        return new JwtAuthenticationResponse(jwt);
+        var response = refreshTokenService.createTokens(user);
+        logger.debug("Issued tokens for user: {}", user.getUsername());
+        return response;
     }
 
     /**
      * Аутентификация пользователя
      *
-     * @param request данные пользователя
+     * @param request  данные пользователя
+     * @param clientIp адрес клиента
      * @return токен
      */
-    public JwtAuthenticationResponse signIn(SignInRequest request) {
-        System.out.println("Authenticating user: " + request.getUsername());
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+    public JwtAuthenticationResponse signIn(SignInRequest request, String clientIp) {
+        logger.debug("Authenticating user: {}", request.getUsername());
+        loginRateLimiter.checkAttempt(request.getUsername(), clientIp);
+
+        // Проверка пароля (BCrypt) - в отдельном ограниченном пуле, а не на потоке Tomcat
+        passwordHashingExecutor.execute(() -> authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
                 request.getUsername(),
                 request.getPassword()
-        ));
+        )));
+
+        var user = userService.getByUsername(request.getUsername());
+
+        var response = refreshTokenService.createTokens(user);
+        logger.debug("Issued tokens for user: {}", user.getUsername());
+        return response;
+    }
+
+    /**
+     * Смена пароля: ранее выпущенные токены доступа и refresh-токены перестают приниматься
+     *
+     * @param username имя текущего пользователя
+     * @param request  текущий и новый пароль
+     * @param clientIp адрес клиента
+     */
+    public void changePassword(String username, ChangePasswordRequest request, String clientIp) {
+        logger.debug("Changing password of user: {}", username);
+        loginRateLimiter.checkAttempt(username, clientIp);
+
+        passwordHashingExecutor.execute(() -> authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+                username,
+                request.getCurrentPassword()
+        )));
 
-        var user = userService
-                .userDetailsService()
-                .loadUserByUsername(request.getUsername());
+        String encodedPassword = passwordHashingExecutor.execute(() -> passwordEncoder.encode(request.getNewPassword()));
+        userService.changePassword(userService.getByUsername(username), encodedPassword);
+    }
 
-        var jwt = jwtService.generateToken(user);
-        System.out.println("Generated token: " + jwt);
-        return new JwtAuthenticationResponse(jwt);
+    /**
+     * Удаление учётной записи текущего пользователя с отзывом всех его токенов
+     *
+     * @param username имя текущего пользователя
+     */
+    public void deleteAccount(String username) {
+        logger.debug("Deleting account of user: {}", username);
+        userService.delete(userService.getByUsername(username));
+    }
+
+    /**
+     * Обмен refresh-токена на новую пару токенов без проверки пароля
+     *
+     * @param request refresh-токен
+     * @return токен доступа и новый refresh-токен
+     */
+    public JwtAuthenticationResponse refresh(RefreshTokenRequest request) {
+        return refreshTokenService.refresh(request.getRefreshToken());
+    }
+
+    /**
+     * Выход пользователя: отзыв предъявленного токена доступа и цепочки refresh-токенов.
+     * Без refresh-токена отзываются все refresh-токены пользователя: иначе после выхода
+     * можно было бы получать новые токены доступа
+     *
+     * @param token        токен доступа
+     * @param refreshToken refresh-токен этого входа или null
+     */
+    public void signOut(String token, String refreshToken) {
+        JwtPrincipal principal = jwtService.parseToken(token);
+        if (principal == null || principal.tokenId() == null) {
+            throw new IllegalArgumentException("Токен недействителен или не может быть отозван");
+        }
+        tokenRevocationService.revoke(principal.tokenId(), principal.username(), principal.expiration());
+        if (refreshToken != null) {
+            refreshTokenService.revokeFamilyOf(refreshToken, principal.id());
+        } else {
+            refreshTokenService.revokeAllForUser(principal.id());
+        }
+    }
+
+    /**
+     * Статистика пула хеширования паролей и ограничения попыток входа
+     *
+     * @return метрики
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("passwordHashing", passwordHashingExecutor.getStats());
+        stats.put("rateLimit", loginRateLimiter.getStats());
+        return stats;
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,10 @@
 package com.example.vkr2.JWT.services;
 
+import com.example.vkr2.JWT.models.JwtPrincipal;
 import com.example.vkr2.JWT.models.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -10,6 +12,7 @@ import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,6 +23,7 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
@@ -30,6 +34,44 @@ public class JwtService {
     @Value("${token.signing.key}")
     private String jwtSigningKey;
 
+    // Токен доступа короткоживущий, продление - через refresh-токен
+    @Value("${token.access.ttl-ms:900000}")
+    private long accessTokenTtlMs;
+
+    // Ключ и парсер неизменяемы и потокобезопасны, создаются один раз при старте
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSigningKey));
+        jwtParser = Jwts.parser()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    /**
+     * Проверка подписи и срока действия токена за один разбор
+     *
+     * @param token токен
+     * @return данные токена или null, если токен невалиден
+     */
+    public JwtPrincipal parseToken(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            return new JwtPrincipal(
+                    claims.getId(),
+                    claims.getSubject(),
+                    claims.get("id", Long.class),
+                    claims.get("email", String.class),
+                    claims.getIssuedAt(),
+                    claims.getExpiration()
+            );
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * Извлечение имени пользователя из токена
      *
@@ -72,14 +114,15 @@ public class JwtService {
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
         try {
-            final String userName = extractUserName(token);
-            boolean isValid = (userName != null && userName.equals(userDetails.getUsername())) && !isTokenExpired(token);
+            final JwtPrincipal principal = parseToken(token);
+            boolean isValid = principal != null
+                    && userDetails.getUsername().equals(principal.username())
+                    && principal.expiration() != null
+                    && principal.expiration().after(new Date());
 
             if (!isValid) {
-                logger.warn("Token validation failed for user: {}. Username match: {}, Expired: {}",
-                        userDetails.getUsername(),
-                        userName != null && userName.equals(userDetails.getUsername()),
-                        isTokenExpired(token));
+                logger.warn("Token validation failed for user: {}. Parsed: {}",
+                        userDetails.getUsername(), principal != null);
             }
 
             return isValid;
@@ -111,42 +154,18 @@ public class JwtService {
      */
     private String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         Date now = new Date();
-        Date expiration = new Date(now.getTime() + 24 * 60 * 60 * 1000); // 24 часа
+        Date expiration = new Date(now.getTime() + accessTokenTtlMs);
 
         return Jwts.builder()
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(now)
                 .setExpiration(expiration)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    /**
-     * Проверка токена на просроченность
-     *
-     * @param token токен
-     * @return true, если токен просрочен
-     */
-    private boolean isTokenExpired(String token) {
-        try {
-            return extractExpiration(token).before(new Date());
-        } catch (Exception e) {
-            logger.error("Error checking token expiration", e);
-            return true;
-        }
-    }
-
-    /**
-     * Извлечение даты истечения токена
-     *
-     * @param token токен
-     * @return дата истечения
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
     /**
      * Извлечение всех данных из токена
      *
@@ -155,9 +174,7 @@ public class JwtService {
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
+            return jwtParser
                     .parseClaimsJws(token)
                     .getBody();
         } catch (ExpiredJwtException e) {
@@ -177,14 +194,4 @@ public class JwtService {
             throw e;
         }
     }
-
-    /**
-     * Получение ключа для подписи токена
-     *
-     * @return ключ
-     */
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSigningKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-}
\ No newline at end of file
+}
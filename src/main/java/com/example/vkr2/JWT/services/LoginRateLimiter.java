@@ -0,0 +1,74 @@
+package com.example.vkr2.JWT.services;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ограничение частоты попыток входа и регистрации по имени пользователя и по IP.
+ * <p>
+ * Проверка выполняется до BCrypt, поэтому подбор пароля отсекается без затрат CPU.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    @Value("${auth.rate-limit.username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${auth.rate-limit.username.refill-per-minute:5}")
+    private int usernameRefillPerMinute;
+
+    @Value("${auth.rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${auth.rate-limit.ip.refill-per-minute:60}")
+    private int ipRefillPerMinute;
+
+    @Value("${auth.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    private StripedRateLimiter usernameLimiter;
+    private StripedRateLimiter ipLimiter;
+
+    @PostConstruct
+    public void init() {
+        usernameLimiter = new StripedRateLimiter(usernameCapacity, usernameRefillPerMinute, maxKeys);
+        ipLimiter = new StripedRateLimiter(ipCapacity, ipRefillPerMinute, maxKeys);
+    }
+
+    /**
+     * Проверка лимитов для попытки входа
+     *
+     * @param username имя пользователя
+     * @param clientIp адрес клиента
+     * @throws ResponseStatusException 429, если лимит исчерпан
+     */
+    public void checkAttempt(String username, String clientIp) {
+        if (clientIp != null && !ipLimiter.tryAcquire(clientIp)) {
+            logger.warn("Login rate limit exceeded for IP: {}", clientIp);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Слишком много попыток входа, повторите позже");
+        }
+        if (username != null && !usernameLimiter.tryAcquire(username.toLowerCase())) {
+            logger.warn("Login rate limit exceeded for user: {}", username);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Слишком много попыток входа, повторите позже");
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("usernameAllowed", usernameLimiter.getAllowedCount());
+        stats.put("usernameRejected", usernameLimiter.getRejectedCount());
+        stats.put("ipAllowed", ipLimiter.getAllowedCount());
+        stats.put("ipRejected", ipLimiter.getRejectedCount());
+        return stats;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.vkr2.JWT.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Отдельный ограниченный пул для BCrypt.
+ * <p>
+ * Хеширование паролей не выполняется на потоках Tomcat: пул и очередь фиксированного размера,
+ * при переполнении запрос сразу получает 429, а не ждёт, занимая поток обработки API.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.hashing.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${auth.hashing.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalHashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    public void init() {
+        // По умолчанию - половина ядер, чтобы всплеск входов не забирал весь CPU
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Password hashing pool started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Выполнение операции с паролем в пуле хеширования
+     *
+     * @param task операция (проверка или кодирование пароля)
+     * @param <T>  тип результата
+     * @return результат операции
+     * @throws ResponseStatusException 429, если пул и очередь заняты или ожидание превысило лимит
+     */
+    public <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - startedAt;
+                    completed.increment();
+                    totalHashNanos.add(elapsed);
+                    maxHashNanos.accumulate(elapsed);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Password hashing queue is full, request rejected");
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Слишком много запросов, повторите позже");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            logger.warn("Password hashing timed out after {} ms", timeoutMs);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Слишком много запросов, повторите позже");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Ожидание хеширования пароля прервано", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long count = completed.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("completed", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("avgHashMs", count > 0 ? totalHashNanos.sum() / count / 1_000_000.0 : 0.0);
+        stats.put("maxHashMs", maxHashNanos.get() / 1_000_000.0);
+        return stats;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.vkr2.JWT.services;
+
+import com.example.vkr2.JWT.DTO.JwtAuthenticationResponse;
+import com.example.vkr2.JWT.models.RefreshToken;
+import com.example.vkr2.JWT.models.User;
+import com.example.vkr2.JWT.repo.RefreshTokenRepository;
+import com.example.vkr2.JWT.repo.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Refresh-токены с ротацией.
+ * <p>
+ * Токен - случайная строка, в базе хранится только её SHA-256, поэтому обмен - это поиск
+ * по уникальному индексу без BCrypt. Каждый токен одноразовый: при обмене выдаётся новый
+ * из той же цепочки. Повторное предъявление уже использованного токена означает утечку -
+ * отзывается вся цепочка.
+ */
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${token.refresh.ttl-ms:2592000000}")
+    private long refreshTokenTtlMs;
+
+    /**
+     * Выдача пары токенов после входа по паролю (новая цепочка ротации)
+     *
+     * @param user пользователь
+     * @return токен доступа и refresh-токен
+     */
+    @Transactional
+    public JwtAuthenticationResponse createTokens(User user) {
+        String refreshToken = issue(user.getId(), UUID.randomUUID().toString());
+        return new JwtAuthenticationResponse(jwtService.generateToken(user), refreshToken);
+    }
+
+    /**
+     * Обмен refresh-токена на новую пару токенов
+     *
+     * @param rawToken refresh-токен
+     * @return токен доступа и новый refresh-токен
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public JwtAuthenticationResponse refresh(String rawToken) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new BadCredentialsException("Refresh-токен недействителен"));
+
+        if (token.getRevokedAt() != null || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            logger.warn("Refresh token reuse detected for user ID: {}, family {} revoked ({} tokens)",
+                    token.getUserId(), token.getFamilyId(), revoked);
+            throw new BadCredentialsException("Refresh-токен уже использован");
+        }
+
+        if (token.getExpiresAt().isBefore(now)) {
+            throw new BadCredentialsException("Срок действия refresh-токена истёк");
+        }
+
+        User user = userRepository.findById(token.getUserId())
+                .orElseThrow(() -> new BadCredentialsException("Пользователь не найден"));
+
+        String refreshToken = issue(user.getId(), token.getFamilyId());
+        logger.debug("Refresh token rotated for user: {}", user.getUsername());
+        return new JwtAuthenticationResponse(jwtService.generateToken(user), refreshToken);
+    }
+
+    /**
+     * Отзыв всех refresh-токенов пользователя (смена пароля, удаление)
+     *
+     * @param userId идентификатор пользователя
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        int revoked = refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+        logger.info("Revoked {} refresh tokens of user ID: {}", revoked, userId);
+    }
+
+    /**
+     * Отзыв цепочки ротации, к которой относится refresh-токен (выход на одном устройстве)
+     *
+     * @param rawToken refresh-токен
+     * @param userId   идентификатор пользователя: токен другого пользователя не отзывается
+     */
+    @Transactional
+    public void revokeFamilyOf(String rawToken, Long userId) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .filter(token -> token.getUserId().equals(userId))
+                .ifPresent(token -> {
+                    int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now());
+                    logger.debug("Revoked refresh token family {} ({} tokens)", token.getFamilyId(), revoked);
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${token.refresh.prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Pruned {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .userId(userId)
+                .familyId(familyId)
+                .createdAt(now)
+                .expiresAt(now.plus(Duration.ofMillis(refreshTokenTtlMs)))
+                .build());
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
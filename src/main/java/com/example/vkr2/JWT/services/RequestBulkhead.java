@@ -0,0 +1,93 @@
+package com.example.vkr2.JWT.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограничение числа одновременно выполняемых запросов одного класса.
+ * <p>
+ * Сверх лимита запрос ждёт в очереди ограниченной длины не дольше заданного времени,
+ * при переполнении очереди отказ происходит сразу.
+ */
+public final class RequestBulkhead {
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long queueTimeoutMs;
+
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queuedTotal = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param maxConcurrent  максимальное число одновременных запросов
+     * @param maxQueue       максимальное число ожидающих запросов
+     * @param queueTimeoutMs максимальное время ожидания в очереди
+     */
+    public RequestBulkhead(int maxConcurrent, int maxQueue, long queueTimeoutMs) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Попытка занять место; при успехе обязателен вызов {@link #exit()}
+     *
+     * @return true, если запрос можно выполнять
+     */
+    public boolean tryEnter() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+
+        queuedTotal.increment();
+        long startedAt = System.nanoTime();
+        try {
+            boolean acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                rejected.increment();
+            }
+            return acquired;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+            maxQueueWaitNanos.accumulate(System.nanoTime() - startedAt);
+        }
+    }
+
+    public void exit() {
+        completed.increment();
+        permits.release();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("maxQueue", maxQueue);
+        stats.put("active", maxConcurrent - permits.availablePermits());
+        stats.put("queued", queued.get());
+        stats.put("queuedTotal", queuedTotal.sum());
+        stats.put("completed", completed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("maxQueueWaitMs", maxQueueWaitNanos.get() / 1_000_000.0);
+        return stats;
+    }
+}
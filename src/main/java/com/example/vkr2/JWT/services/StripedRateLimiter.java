@@ -0,0 +1,97 @@
+package com.example.vkr2.JWT.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограничитель частоты запросов "token bucket" по произвольному ключу (имя пользователя, IP).
+ * <p>
+ * Состояние разбито на полосы по хешу ключа, каждая полоса под своей блокировкой,
+ * поэтому потоки с разными ключами почти не конкурируют. Число ключей в полосе ограничено:
+ * при переполнении вытесняются давно не использованные, так что перебор случайных
+ * имён не раздувает память.
+ */
+public final class StripedRateLimiter {
+
+    private static final int STRIPES = 64;
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param capacity        максимальный запас запросов (размер всплеска)
+     * @param refillPerMinute пополнение запаса в минуту
+     * @param maxKeys         максимальное количество отслеживаемых ключей
+     */
+    public StripedRateLimiter(int capacity, int refillPerMinute, int maxKeys) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / 60_000_000_000.0;
+        int maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxKeysPerStripe);
+        }
+    }
+
+    /**
+     * Попытка взять разрешение на запрос
+     *
+     * @param key ключ ограничения
+     * @return true, если запрос разрешён
+     */
+    public boolean tryAcquire(String key) {
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), STRIPES)];
+        long now = System.nanoTime();
+        boolean acquired;
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            }
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * refillPerNano);
+            bucket.updatedAt = now;
+            acquired = bucket.tokens >= 1;
+            if (acquired) {
+                bucket.tokens -= 1;
+            }
+        }
+        (acquired ? allowed : rejected).increment();
+        return acquired;
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private static final class Stripe {
+        private final Map<String, Bucket> buckets;
+
+        private Stripe(int maxKeys) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
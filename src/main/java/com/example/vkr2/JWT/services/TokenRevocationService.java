@@ -0,0 +1,161 @@
+package com.example.vkr2.JWT.services;
+
+import com.example.vkr2.JWT.models.JwtPrincipal;
+import com.example.vkr2.JWT.models.RevokedToken;
+import com.example.vkr2.JWT.repo.RevokedTokenRepository;
+import com.example.vkr2.services.CacheInvalidationBus;
+import com.example.vkr2.services.CacheInvalidationHandler;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отзыв токенов по идентификатору (jti).
+ * <p>
+ * Отозванные идентификаторы хранятся в таблице revoked_token, перед ней стоит фильтр Блума в памяти:
+ * запрос в базу выполняется только при срабатывании фильтра. Фильтр периодически перестраивается
+ * из базы; отзывы, сделанные другими экземплярами приложения, приходят через шину инвалидации,
+ * а при её недоступности становятся видны не позже чем через интервал перестроения.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService implements CacheInvalidationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Срок жизни токена, если он неизвестен (отзыв по одному идентификатору)
+    private static final long MAX_TOKEN_LIFETIME_MS = 24 * 60 * 60 * 1000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${auth.revocation.bloom-expected-insertions:10000}")
+    private int expectedInsertions;
+
+    @Value("${auth.revocation.bloom-false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile TokenBloomFilter bloomFilter;
+
+    // Отзывы, полученные с момента последнего чтения из базы: переносятся в новый фильтр при перестроении
+    private final Map<String, Long> recentRevocations = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        rebuildBloomFilter();
+    }
+
+    /**
+     * Проверка, отозван ли токен
+     *
+     * @param principal данные проверенного токена
+     * @return true, если токен отозван
+     */
+    public boolean isRevoked(JwtPrincipal principal) {
+        String jti = principal.tokenId();
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        return revokedTokenRepository.existsByJti(jti);
+    }
+
+    /**
+     * Отзыв токена
+     *
+     * @param jti       идентификатор токена
+     * @param username  имя пользователя
+     * @param expiresAt дата истечения токена, null - если неизвестна
+     */
+    public void revoke(String jti, String username, Date expiresAt) {
+        Date expiration = expiresAt != null ? expiresAt : new Date(System.currentTimeMillis() + MAX_TOKEN_LIFETIME_MS);
+
+        if (!revokedTokenRepository.existsByJti(jti)) {
+            try {
+                revokedTokenRepository.saveAndFlush(RevokedToken.builder()
+                        .jti(jti)
+                        .username(username)
+                        .revokedAt(LocalDateTime.now())
+                        .expiresAt(LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault()))
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Token {} already revoked concurrently", jti);
+            }
+        }
+
+        recentRevocations.put(jti, System.currentTimeMillis());
+        bloomFilter.put(jti);
+        cacheInvalidationBus.publish("revoked-token", jti);
+        logger.info("Token {} revoked for user: {}", jti, username);
+    }
+
+    // Отзыв на другом узле: добавляем в фильтр сразу, не дожидаясь перестроения
+    @Override
+    public Set<String> regions() {
+        return Set.of("revoked-token");
+    }
+
+    @Override
+    public void evict(String region, String id) {
+        recentRevocations.put(id, System.currentTimeMillis());
+        bloomFilter.put(id);
+    }
+
+    @Override
+    public void evictAll() {
+        rebuildBloomFilter();
+    }
+
+    /**
+     * Перестроение фильтра Блума по актуальным записям базы
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.bloom-rebuild-interval-ms:60000}",
+            initialDelayString = "${auth.revocation.bloom-rebuild-interval-ms:60000}")
+    public void rebuildBloomFilter() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            List<String> jtis = revokedTokenRepository.findActiveJtis(LocalDateTime.now());
+
+            TokenBloomFilter rebuilt = new TokenBloomFilter(Math.max(expectedInsertions, jtis.size() * 2), falsePositiveRate);
+            jtis.forEach(rebuilt::put);
+
+            // Отзывы, сделанные во время чтения из базы, могли в выборку не попасть
+            recentRevocations.values().removeIf(time -> time < startedAt);
+            recentRevocations.keySet().forEach(rebuilt::put);
+
+            bloomFilter = rebuilt;
+            logger.debug("Revocation bloom filter rebuilt with {} tokens", jtis.size());
+        } catch (Exception e) {
+            logger.error("Error rebuilding revocation bloom filter: {}", e.getMessage(), e);
+            if (bloomFilter == null) {
+                // При старте без фильтра проверять отзыв нечем, прежний фильтр остаётся только при перестроении
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Удаление записей об истекших токенах
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Pruned {} expired revoked tokens", deleted);
+        }
+    }
+}
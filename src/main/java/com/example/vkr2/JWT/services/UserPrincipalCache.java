@@ -0,0 +1,141 @@
+package com.example.vkr2.JWT.services;
+
+import com.example.vkr2.JWT.models.User;
+import com.example.vkr2.services.CacheInvalidationBus;
+import com.example.vkr2.services.CacheInvalidationHandler;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш пользователей для аутентификации без обращения к базе.
+ * <p>
+ * Ограничен по размеру (вытесняются давно не использованные записи) и по времени жизни записи.
+ * Помимо кэша хранит время инвалидации пользователя (смена пароля, удаление), полученное по шине:
+ * токены, выпущенные до этого момента, отклоняются сразу, до повторного чтения пользователя из базы.
+ * Долговременная отметка - tokens_valid_after в строке пользователя, отметка в памяти её только дублирует.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalCache implements CacheInvalidationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+    // Дольше срока жизни токена доступа отметка не нужна, сутки - с запасом
+    private static final long INVALIDATION_RETENTION_MS = 24 * 60 * 60 * 1000;
+
+    @Value("${auth.user-cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${auth.user-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, CachedUser> users = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    private final Map<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * Получение пользователя из кэша
+     *
+     * @param username имя пользователя
+     * @return пользователь или null, если записи нет или она устарела
+     */
+    public synchronized User get(String username) {
+        CachedUser cached = users.get(username);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt() < System.currentTimeMillis()) {
+            users.remove(username);
+            return null;
+        }
+        return cached.user();
+    }
+
+    /**
+     * Добавление пользователя в кэш
+     *
+     * @param user пользователь
+     */
+    public synchronized void put(User user) {
+        users.put(user.getUsername(), new CachedUser(user, System.currentTimeMillis() + ttlMs));
+    }
+
+    /**
+     * Инвалидация пользователя: удаление из кэша и отзыв ранее выпущенных токенов
+     * <p>
+     * Вызывается при смене пароля и удалении пользователя
+     *
+     * @param username имя пользователя
+     */
+    public void invalidate(String username) {
+        invalidateLocally(username);
+        cacheInvalidationBus.publish("user-invalidated", username);
+        logger.info("User {} invalidated, tokens issued before now are rejected", username);
+    }
+
+    @Override
+    public Set<String> regions() {
+        return Set.of("user", "user-invalidated");
+    }
+
+    @Override
+    public void evict(String region, String id) {
+        if (region.equals("user-invalidated")) {
+            invalidateLocally(id);
+        } else {
+            synchronized (this) {
+                users.remove(id);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void evictAll() {
+        users.clear();
+    }
+
+    private void invalidateLocally(String username) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            users.remove(username);
+        }
+        invalidatedAt.put(username, now);
+        invalidatedAt.values().removeIf(time -> time < now - INVALIDATION_RETENTION_MS);
+    }
+
+    /**
+     * Проверка, выпущен ли токен до инвалидации пользователя
+     * <p>
+     * Время выпуска в токене хранится с точностью до секунды, сравнение ведётся так же
+     *
+     * @param username имя пользователя
+     * @param issuedAt время выпуска токена
+     * @return true, если токен больше не действителен
+     */
+    public boolean isIssuedBeforeInvalidation(String username, Date issuedAt) {
+        Long invalidated = invalidatedAt.get(username);
+        if (invalidated == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.getTime() / 1000 < invalidated / 1000;
+    }
+
+    private record CachedUser(User user, long expiresAt) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.vkr2.JWT.services;
 
+import com.example.vkr2.JWT.models.JwtPrincipal;
 import com.example.vkr2.JWT.models.User;
 import com.example.vkr2.JWT.repo.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -8,10 +9,16 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository repository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final RefreshTokenService refreshTokenService;
 
     /**
      * Сохранение пользователя
@@ -63,6 +70,72 @@ public class UserService {
         return this::getByUsername;
     }
 
+    /**
+     * Получение пользователя по проверенному токену
+     * <p>
+     * Пользователь берётся из кэша, иначе читается из базы (кэш второго уровня и кэш запросов) вместе
+     * с отметкой tokens_valid_after. Токен, выпущенный до этой отметки, отклоняется
+     *
+     * @param principal данные проверенного токена
+     * @return пользователь или null, если пользователь удалён или токен выпущен до смены пароля
+     */
+    public User getByToken(JwtPrincipal principal) {
+        // Быстрая проверка по отметке, пришедшей с другого узла, пока кэш ещё не перечитан
+        if (userPrincipalCache.isIssuedBeforeInvalidation(principal.username(), principal.issuedAt())) {
+            return null;
+        }
+
+        User user = userPrincipalCache.get(principal.username());
+        if (user == null) {
+            user = repository.findByUsername(principal.username()).orElse(null);
+            if (user == null) {
+                return null;
+            }
+            userPrincipalCache.put(user);
+        }
+        return isIssuedBefore(principal.issuedAt(), user.getTokensValidAfter()) ? null : user;
+    }
+
+    /**
+     * Смена пароля пользователя
+     * <p>
+     * Ранее выпущенные токены доступа перестают приниматься, refresh-токены отзываются
+     *
+     * @param user            пользователь
+     * @param encodedPassword новый пароль в закодированном виде
+     * @return сохраненный пользователь
+     */
+    public User changePassword(User user, String encodedPassword) {
+        user.setPassword(encodedPassword);
+        user.setTokensValidAfter(LocalDateTime.now());
+        User saved = save(user);
+        userPrincipalCache.invalidate(saved.getUsername());
+        refreshTokenService.revokeAllForUser(saved.getId());
+        return saved;
+    }
+
+    /**
+     * Удаление пользователя
+     * <p>
+     * Ранее выпущенные токены доступа перестают приниматься, refresh-токены отзываются
+     *
+     * @param user пользователь
+     */
+    public void delete(User user) {
+        refreshTokenService.revokeAllForUser(user.getId());
+        repository.delete(user);
+        userPrincipalCache.invalidate(user.getUsername());
+    }
+
+    // Время выпуска в токене хранится с точностью до секунды, сравнение ведётся так же
+    private boolean isIssuedBefore(Date issuedAt, LocalDateTime validAfter) {
+        if (validAfter == null) {
+            return false;
+        }
+        return issuedAt == null
+                || issuedAt.getTime() / 1000 < validAfter.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
     /**
      * Получение текущего пользователя
      *
@@ -0,0 +1,57 @@
+package com.example.vkr2.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись журнала аудита: кто и что изменил в сущности.
+ * Строки пишутся пакетами фоновым обработчиком, приложение их только читает.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "audit_log", indexes = {
+        @Index(name = "idx_audit_log_entity", columnList = "entity_type, entity_id, changed_at"),
+        @Index(name = "idx_audit_log_username_changed_at", columnList = "username, changed_at"),
+        @Index(name = "idx_audit_log_changed_at", columnList = "changed_at")
+})
+public class AuditLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 64)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false, length = 64)
+    private String entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action", nullable = false, length = 16)
+    private Action action;
+
+    @Column(name = "username", nullable = false)
+    private String username;
+
+    // Изменённые поля: {"поле": {"old": ..., "new": ...}}
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "changes")
+    private String changes;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public enum Action {
+        INSERT, UPDATE, DELETE
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.vkr2.entity;
+
+import com.example.vkr2.JWT.models.User;
+import com.example.vkr2.services.CacheInvalidationBus;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Публикация изменений кэшируемых сущностей в шину инвалидации.
+ * <p>
+ * Создаётся Spring (контейнер бинов Hibernate), поэтому зависимости внедряются через конструктор.
+ */
+@RequiredArgsConstructor
+public class CacheInvalidationListener {
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Car car) {
+            cacheInvalidationBus.publish("car", car.getId());
+        } else if (entity instanceof Driver driver) {
+            cacheInvalidationBus.publish("driver", driver.getId());
+        } else if (entity instanceof ReminderSettings settings) {
+            cacheInvalidationBus.publish("reminder-settings", settings.getId());
+        } else if (entity instanceof User user) {
+            cacheInvalidationBus.publish("user", user.getUsername());
+        }
+    }
+}
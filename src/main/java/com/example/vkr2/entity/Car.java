@@ -2,14 +2,20 @@ package com.example.vkr2.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "car")
+@EntityListeners(CacheInvalidationListener.class)
 @Table(name = "car")
 public class Car {
 
@@ -45,7 +51,7 @@ public class Car {
     @Column(nullable = false)
     private CarStatus status;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "driver_id", unique = true)
     private Driver driver;
 
@@ -66,6 +72,10 @@ public class Car {
     @Column(length = 1000)
     private String description;
 
+    // Заполняется при мягком удалении, история автомобиля очищается фоновой задачей
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     // Добавляем метод с префиксом is для совместимости с существующим кодом
     public boolean isSecondaryCounterEnabled() {
         return secondaryCounterEnabled != null ? secondaryCounterEnabled : Boolean.FALSE;
@@ -0,0 +1,53 @@
+package com.example.vkr2.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись журнала изменений для инкрементальной синхронизации клиентов.
+ * Строки добавляются триггерами базы данных, приложение их только читает.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_seq", columnList = "seq", unique = true),
+        @Index(name = "idx_change_log_changed_at", columnList = "changed_at")
+})
+public class ChangeLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Курсор синхронизации: назначается только зафиксированным записям, в порядке их видимости
+    @Column(name = "seq")
+    private Long seq;
+
+    @Column(name = "table_name", nullable = false, length = 64)
+    private String tableName;
+
+    @Column(name = "row_id", nullable = false)
+    private Long rowId;
+
+    // I - создание, U - изменение, D - удаление
+    @Column(name = "operation", nullable = false, length = 1)
+    private String operation;
+
+    // Состояние строки после изменения; для удаления - null
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "data")
+    private String data;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -3,8 +3,13 @@ package com.example.vkr2.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "driver")
+@EntityListeners(CacheInvalidationListener.class)
 @Table(name = "driver")
 @Getter
 @Setter
@@ -19,7 +24,7 @@ public class Driver {
     @Column(name = "phone_number", nullable = false)
     private String phoneNumber;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "car_id")
     private Car car;
 }
\ No newline at end of file
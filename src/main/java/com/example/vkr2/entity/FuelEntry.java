@@ -10,14 +10,17 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "fuel_entries")
+// Страницы заправок автомобиля и статистика по нему выбираются по car_id с сортировкой по дате
+@Table(name = "fuel_entries", indexes = {
+        @Index(name = "idx_fuel_entries_car_date_time", columnList = "car_id, date_time")
+})
 public class FuelEntry {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "car_id", nullable = false)
     private Car car;
 
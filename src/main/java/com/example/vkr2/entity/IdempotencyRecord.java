@@ -0,0 +1,74 @@
+package com.example.vkr2.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Сохранённый ответ на запрос с заголовком Idempotency-Key
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_key", indexes = {
+        @Index(name = "idx_idempotency_key_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 от пользователя, метода, пути и ключа: индекс фиксированной длины 32 байта
+    @Column(name = "key_hash", nullable = false, unique = true, length = 32)
+    private byte[] keyHash;
+
+    // SHA-256 тела запроса: тот же ключ с другим телом - ошибка клиента
+    @Column(name = "request_hash", nullable = false, length = 32)
+    private byte[] requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_content_type", length = 128)
+    private String responseContentType;
+
+    @Column(name = "response_body")
+    private byte[] responseBody;
+
+    // Заголовки ответа, от которых зависит клиент: адрес созданной записи и принятое предпочтение Prefer
+    @Column(name = "response_location", length = 2048)
+    private String responseLocation;
+
+    @Column(name = "response_preference_applied", length = 255)
+    private String responsePreferenceApplied;
+
+    // Владелец аренды: каждый захват и перехват ключа получает новый идентификатор
+    @Column(name = "lock_owner")
+    private UUID lockOwner;
+
+    // Пока запрос выполняется, повторы ждут; аренда продлевается, после её окончания выполнение считается прерванным
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+}
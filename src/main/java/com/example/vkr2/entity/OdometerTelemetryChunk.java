@@ -0,0 +1,48 @@
+package com.example.vkr2.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Суточный блок телеметрии одометра: все показания автомобиля за день в сжатом виде
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "odometer_telemetry_chunk",
+        uniqueConstraints = @UniqueConstraint(name = "uk_odometer_chunk_car_day", columnNames = {"car_id", "chunk_date"}),
+        indexes = @Index(name = "idx_odometer_chunk_car_day", columnList = "car_id, chunk_date"))
+public class OdometerTelemetryChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    @Column(name = "chunk_date", nullable = false)
+    private LocalDate chunkDate;
+
+    @Column(name = "first_timestamp", nullable = false)
+    private LocalDateTime firstTimestamp;
+
+    @Column(name = "last_timestamp", nullable = false)
+    private LocalDateTime lastTimestamp;
+
+    @Column(name = "first_value", nullable = false)
+    private Long firstValue;
+
+    @Column(name = "last_value", nullable = false)
+    private Long lastValue;
+
+    @Column(name = "sample_count", nullable = false)
+    private Integer sampleCount;
+
+    // delta-of-delta для времени и varint-дельты пробега, см. OdometerTelemetryCodec
+    @Column(name = "data", nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+}
@@ -2,12 +2,17 @@ package com.example.vkr2.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reminder-settings")
+@EntityListeners(CacheInvalidationListener.class)
 @Table(name = "reminder_settings")
 public class ReminderSettings {
 
@@ -15,7 +20,7 @@ public class ReminderSettings {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "car_id", nullable = false, unique = true)
     private Car car;
 
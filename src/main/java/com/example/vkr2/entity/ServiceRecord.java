@@ -11,14 +11,17 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "service_record")
+@Table(name = "service_record", indexes = {
+        @Index(name = "idx_service_record_status_planned_end", columnList = "status, planned_end_date_time"),
+        @Index(name = "idx_service_record_car_status_completed", columnList = "car_id, status, completed_at")
+})
 public class ServiceRecord {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "car_id", nullable = false)
     private Car car;
 
@@ -15,7 +15,7 @@ public class ServiceTask {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "service_record_id", nullable = false)
     private ServiceRecord serviceRecord;
 
@@ -0,0 +1,87 @@
+package com.example.vkr2.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отложенная операция записи: запрос принят с ответом 202 и применяется фоновым обработчиком
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "write_operation", indexes = {
+        @Index(name = "idx_write_operation_operation_id", columnList = "operation_id", unique = true),
+        @Index(name = "idx_write_operation_car_status", columnList = "car_id, status"),
+        @Index(name = "idx_write_operation_status_available_at", columnList = "status, available_at"),
+        @Index(name = "idx_write_operation_completed_at", columnList = "completed_at")
+})
+public class WriteOperation {
+
+    // Порядок применения операций одного автомобиля
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Идентификатор, который видит клиент
+    @Column(name = "operation_id", nullable = false, length = 36)
+    private String operationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 32)
+    private Type type;
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    // Пользователь, отправивший запрос: под ним операция применяется и попадает в журнал аудита
+    @Column(name = "username", length = 255)
+    private String username;
+
+    // Исходный запрос в JSON
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    // ID созданной записи после успешного применения
+    @Column(name = "result_id")
+    private Long resultId;
+
+    @Column(name = "error", length = 2000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Раньше этого времени операция не выбирается: задержка повтора или аренда обработчика
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum Type {
+        FUEL_ENTRY, ADDITIONAL_EXPENSE
+    }
+
+    public enum Status {
+        PENDING, PROCESSING, SUCCEEDED, FAILED
+    }
+}
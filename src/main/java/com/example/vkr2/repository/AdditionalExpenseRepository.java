@@ -1,7 +1,9 @@
 package com.example.vkr2.repository;
 
 import com.example.vkr2.entity.AdditionalExpense;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -11,6 +13,11 @@ import java.util.List;
 public interface AdditionalExpenseRepository extends JpaRepository<AdditionalExpense, Long> {
     List<AdditionalExpense> findByCarId(Long carId);
 
+    // Для списков: автомобиль подгружается тем же запросом
+    @EntityGraph(attributePaths = "car")
+    @Query("SELECT ae FROM AdditionalExpense ae")
+    List<AdditionalExpense> findAllWithCar();
+
     @Query("SELECT ae FROM AdditionalExpense ae WHERE ae.dateTime BETWEEN :startDate AND :endDate")
     List<AdditionalExpense> findByDateTimeBetween(@Param("startDate") LocalDateTime startDate,
                                                   @Param("endDate") LocalDateTime endDate);
@@ -21,6 +28,7 @@ public interface AdditionalExpenseRepository extends JpaRepository<AdditionalExp
                                                           @Param("endDate") LocalDateTime endDate);
 
     // Комплексный фильтр для дополнительных расходов
+    @EntityGraph(attributePaths = "car")
     @Query("SELECT ae FROM AdditionalExpense ae WHERE " +
             "(:search IS NULL OR :search = '' OR " +
             "LOWER(ae.type) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -43,4 +51,15 @@ public interface AdditionalExpenseRepository extends JpaRepository<AdditionalExp
 
     List<AdditionalExpense> findByTypeContainingIgnoreCase(String type);
     List<AdditionalExpense> findByPriceBetween(Double minPrice, Double maxPrice);
+
+    // Удаление всех записей автомобиля одним запросом
+    @Modifying
+    @Query("DELETE FROM AdditionalExpense ae WHERE ae.car.id = :carId")
+    int deleteByCarId(@Param("carId") Long carId);
+
+    // Порционное удаление для фоновой очистки
+    @Modifying
+    @Query(value = "DELETE FROM additional_expense WHERE id IN (SELECT id FROM additional_expense WHERE car_id = :carId LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteBatchByCarId(@Param("carId") Long carId, @Param("batchSize") int batchSize);
 }
\ No newline at end of file
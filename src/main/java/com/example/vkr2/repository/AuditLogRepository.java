@@ -0,0 +1,26 @@
+package com.example.vkr2.repository;
+
+import com.example.vkr2.entity.AuditLogEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface AuditLogRepository extends JpaRepository<AuditLogEntry, Long> {
+
+    @Query("SELECT a FROM AuditLogEntry a WHERE " +
+            "(:entityType IS NULL OR a.entityType = :entityType) AND " +
+            "(:entityId IS NULL OR a.entityId = :entityId) AND " +
+            "(:username IS NULL OR a.username = :username) AND " +
+            "(CAST(:from AS timestamp) IS NULL OR a.changedAt >= :from) AND " +
+            "(CAST(:to AS timestamp) IS NULL OR a.changedAt < :to)")
+    Page<AuditLogEntry> findWithFilters(@Param("entityType") String entityType,
+                                        @Param("entityId") String entityId,
+                                        @Param("username") String username,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        Pageable pageable);
+}
@@ -2,7 +2,11 @@ package com.example.vkr2.repository;
 
 import com.example.vkr2.entity.Car;
 import com.example.vkr2.entity.CarStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -14,6 +18,7 @@ public interface CarRepository extends JpaRepository<Car, Long> {
     Optional<Car> findByLicensePlate(String licensePlate);
 
     // Фильтры для поиска
+    @EntityGraph(attributePaths = "driver")
     @Query("SELECT c FROM Car c WHERE " +
             "(:search IS NULL OR :search = '' OR " +
             "LOWER(c.brand) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -21,6 +26,7 @@ public interface CarRepository extends JpaRepository<Car, Long> {
             "LOWER(c.licensePlate) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(c.vin) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
             "(:status IS NULL OR c.status = :status) AND " +
+            "c.deletedAt IS NULL AND " +
             "(:yearFrom IS NULL OR c.year >= :yearFrom) AND " +
             "(:yearTo IS NULL OR c.year <= :yearTo)")
     List<Car> findCarsWithFilters(@Param("search") String search,
@@ -31,4 +37,27 @@ public interface CarRepository extends JpaRepository<Car, Long> {
     List<Car> findByStatus(CarStatus status);
     List<Car> findByYear(Integer year);
     List<Car> findByYearBetween(Integer yearFrom, Integer yearTo);
+
+    // Автомобили, не помеченные на удаление
+    @EntityGraph(attributePaths = "driver")
+    @Query("SELECT c FROM Car c WHERE c.deletedAt IS NULL")
+    List<Car> findAllActive();
+
+    // Автомобиль, не помеченный на удаление; чтение по ID идёт через кэш второго уровня
+    default Optional<Car> findActiveById(Long carId) {
+        return findById(carId).filter(car -> car.getDeletedAt() == null);
+    }
+
+    // Блокировка строки автомобиля (SELECT ... FOR UPDATE): сериализует запись данных одного автомобиля
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Car c WHERE c.id = :carId AND c.deletedAt IS NULL")
+    Optional<Car> findByIdForUpdate(@Param("carId") Long carId);
+
+    // Автомобили, ожидающие фоновой очистки истории
+    @Query("SELECT c.id FROM Car c WHERE c.deletedAt IS NOT NULL ORDER BY c.deletedAt ASC")
+    List<Long> findIdsPendingPurge();
+
+    @Modifying
+    @Query("DELETE FROM Car c WHERE c.id = :carId")
+    int deleteCarById(@Param("carId") Long carId);
 }
\ No newline at end of file
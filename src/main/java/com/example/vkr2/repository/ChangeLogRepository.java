@@ -0,0 +1,46 @@
+package com.example.vkr2.repository;
+
+import com.example.vkr2.entity.ChangeLogEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    List<ChangeLogEntry> findBySeqGreaterThanOrderBySeqAsc(Long seq, Limit limit);
+
+    @Query("SELECT MIN(c.seq) FROM ChangeLogEntry c")
+    Long findMinSeq();
+
+    @Query("SELECT MAX(c.seq) FROM ChangeLogEntry c")
+    Long findMaxSeq();
+
+    // Один узел назначает номера в каждый момент времени: номера растут в порядке фиксации
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    Boolean tryAdvisoryLock(@Param("key") long key);
+
+    @Modifying
+    @Query(value = "UPDATE change_log c SET seq = s.seq FROM " +
+            "(SELECT t.id, nextval('change_log_seq') AS seq FROM " +
+            "(SELECT id FROM change_log WHERE seq IS NULL ORDER BY id LIMIT :batchSize) t) s " +
+            "WHERE c.id = s.id", nativeQuery = true)
+    int assignSeqBatch(@Param("batchSize") int batchSize);
+
+    // Граница очистки по номеру: самый большой номер среди устаревших записей, но не последний в журнале.
+    // changed_at - время начала транзакции записи и не упорядочено как seq, поэтому удаляется весь префикс seq <= границы
+    @Query(value = "SELECT MAX(seq) FROM change_log WHERE changed_at < :before " +
+            "AND seq < (SELECT MAX(seq) FROM change_log)", nativeQuery = true)
+    Long findPruneBoundary(@Param("before") LocalDateTime before);
+
+    // Порционное удаление префикса журнала, без пропусков внутри оставшегося диапазона номеров:
+    // каждая порция фиксируется отдельно, поэтому удаляются самые младшие номера (по idx_change_log_seq)
+    @Modifying
+    @Query(value = "DELETE FROM change_log WHERE id IN (SELECT id FROM change_log " +
+            "WHERE seq <= :maxSeq ORDER BY seq LIMIT :batchSize)", nativeQuery = true)
+    int deleteBatchUpToSeq(@Param("maxSeq") long maxSeq, @Param("batchSize") int batchSize);
+}
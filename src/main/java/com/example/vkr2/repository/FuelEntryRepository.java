@@ -1,17 +1,41 @@
 package com.example.vkr2.repository;
 
 import com.example.vkr2.entity.FuelEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface FuelEntryRepository extends JpaRepository<FuelEntry, Long> {
     List<FuelEntry> findByCarId(Long carId);
 
+    // Постраничная выдача заправок автомобиля
+    @EntityGraph(attributePaths = "car")
+    Page<FuelEntry> findByCarId(Long carId, Pageable pageable);
+
+    // Статистика заправок автомобиля одним запросом: количество, суммы, диапазон одометра
+    // и объём первой заправки (не входит в расчёт расхода на 100 км)
+    @Query(value = "SELECT COUNT(*), COALESCE(SUM(total_cost), 0), COALESCE(SUM(volume), 0), " +
+            "MIN(odometer_reading), MAX(odometer_reading), " +
+            "(SELECT f2.volume FROM fuel_entries f2 WHERE f2.car_id = :carId " +
+            "ORDER BY f2.odometer_reading ASC, f2.date_time ASC LIMIT 1) " +
+            "FROM fuel_entries WHERE car_id = :carId", nativeQuery = true)
+    List<Object[]> getFuelStatsByCarId(@Param("carId") Long carId);
+
+    // Для списков: автомобиль подгружается тем же запросом
+    @EntityGraph(attributePaths = "car")
+    @Query("SELECT fe FROM FuelEntry fe")
+    List<FuelEntry> findAllWithCar();
+
     // Комплексный фильтр для заправок
+    @EntityGraph(attributePaths = "car")
     @Query("SELECT fe FROM FuelEntry fe WHERE " +
             "(:search IS NULL OR :search = '' OR " +
             "LOWER(fe.gasStation) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -37,4 +61,21 @@ public interface FuelEntryRepository extends JpaRepository<FuelEntry, Long> {
     List<FuelEntry> findByFuelType(FuelEntry.FuelType fuelType);
     List<FuelEntry> findByTotalCostBetween(Double minCost, Double maxCost);
     List<FuelEntry> findByDateTimeBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    // ID записей автомобиля для журнала аудита перед массовым удалением
+    @Query("SELECT fe.id FROM FuelEntry fe WHERE fe.car.id = :carId")
+    List<Long> findIdsByCarId(@Param("carId") Long carId);
+
+    // Удаление всех записей автомобиля одним запросом
+    @Modifying
+    @Query("DELETE FROM FuelEntry fe WHERE fe.car.id = :carId")
+    int deleteByCarId(@Param("carId") Long carId);
+
+    // Порционное удаление для фоновой очистки: ID порции выбираются заранее для журнала аудита
+    @Query(value = "SELECT id FROM fuel_entries WHERE car_id = :carId LIMIT :batchSize", nativeQuery = true)
+    List<Long> findIdBatchByCarId(@Param("carId") Long carId, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("DELETE FROM FuelEntry fe WHERE fe.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.example.vkr2.repository;
+
+import com.example.vkr2.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByKeyHash(byte[] keyHash);
+
+    // Захват ключа без исключения при конфликте: 0 - ключ уже существует
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_key (key_hash, request_hash, status, lock_owner, locked_until, created_at, expires_at) " +
+            "VALUES (:keyHash, :requestHash, 'IN_PROGRESS', :owner, :lockedUntil, :now, :expiresAt) " +
+            "ON CONFLICT (key_hash) DO NOTHING", nativeQuery = true)
+    int tryInsert(@Param("keyHash") byte[] keyHash,
+                  @Param("requestHash") byte[] requestHash,
+                  @Param("owner") UUID owner,
+                  @Param("lockedUntil") LocalDateTime lockedUntil,
+                  @Param("now") LocalDateTime now,
+                  @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Перехват ключа, выполнение которого прервалось (узел остановился)
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.lockOwner = :owner, r.lockedUntil = :lockedUntil WHERE r.keyHash = :keyHash " +
+            "AND r.status = com.example.vkr2.entity.IdempotencyRecord.Status.IN_PROGRESS AND r.lockedUntil < :now")
+    int takeOverAbandoned(@Param("keyHash") byte[] keyHash,
+                          @Param("owner") UUID owner,
+                          @Param("lockedUntil") LocalDateTime lockedUntil,
+                          @Param("now") LocalDateTime now);
+
+    // Продление, сохранение ответа и освобождение выполняются только владельцем аренды:
+    // после перехвата ключа прежний исполнитель ничего не меняет
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.lockedUntil = :lockedUntil WHERE r.keyHash = :keyHash " +
+            "AND r.lockOwner = :owner AND r.status = com.example.vkr2.entity.IdempotencyRecord.Status.IN_PROGRESS")
+    int renewLease(@Param("keyHash") byte[] keyHash,
+                   @Param("owner") UUID owner,
+                   @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = com.example.vkr2.entity.IdempotencyRecord.Status.COMPLETED, " +
+            "r.responseStatus = :responseStatus, r.responseContentType = :contentType, r.responseBody = :body, " +
+            "r.responseLocation = :location, r.responsePreferenceApplied = :preferenceApplied " +
+            "WHERE r.keyHash = :keyHash AND r.lockOwner = :owner " +
+            "AND r.status = com.example.vkr2.entity.IdempotencyRecord.Status.IN_PROGRESS")
+    int complete(@Param("keyHash") byte[] keyHash,
+                 @Param("owner") UUID owner,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("contentType") String contentType,
+                 @Param("body") byte[] body,
+                 @Param("location") String location,
+                 @Param("preferenceApplied") String preferenceApplied);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.keyHash = :keyHash AND r.lockOwner = :owner " +
+            "AND r.status = com.example.vkr2.entity.IdempotencyRecord.Status.IN_PROGRESS")
+    int release(@Param("keyHash") byte[] keyHash, @Param("owner") UUID owner);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.keyHash = :keyHash AND r.expiresAt <= :now")
+    int deleteIfExpired(@Param("keyHash") byte[] keyHash, @Param("now") LocalDateTime now);
+
+    // Порционное удаление истёкших ключей
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_key WHERE id IN (SELECT id FROM idempotency_key " +
+            "WHERE expires_at <= :now LIMIT :batchSize)", nativeQuery = true)
+    int deleteBatchExpired(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
@@ -1,7 +1,9 @@
 package com.example.vkr2.repository;
 
 import com.example.vkr2.entity.Notification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -12,8 +14,14 @@ import java.util.Optional;
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
     // Основные методы поиска
+    @EntityGraph(attributePaths = "car")
     List<Notification> findByActiveTrue();
 
+    // Для списков: автомобиль подгружается тем же запросом
+    @EntityGraph(attributePaths = "car")
+    @Query("SELECT n FROM Notification n")
+    List<Notification> findAllWithCar();
+
     List<Notification> findByActiveTrueAndReadFalse();
 
     List<Notification> findByCarId(Long carId);
@@ -91,4 +99,20 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT n FROM Notification n WHERE n.active = true AND " +
             "(n.type = 'OVERDUE' OR (n.type = 'WARNING' AND n.kmToNextService <= 100))")
     List<Notification> findCriticalNotifications();
+
+    // Деактивация всех уведомлений автомобиля одним запросом
+    @Modifying
+    @Query("UPDATE Notification n SET n.active = false WHERE n.car.id = :carId AND n.active = true")
+    int deactivateByCarId(@Param("carId") Long carId);
+
+    // Удаление всех записей автомобиля одним запросом
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.car.id = :carId")
+    int deleteByCarId(@Param("carId") Long carId);
+
+    // Порционное удаление для фоновой очистки
+    @Modifying
+    @Query(value = "DELETE FROM notifications WHERE id IN (SELECT id FROM notifications WHERE car_id = :carId LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteBatchByCarId(@Param("carId") Long carId, @Param("batchSize") int batchSize);
 }
\ No newline at end of file
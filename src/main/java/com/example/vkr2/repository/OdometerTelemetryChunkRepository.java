@@ -0,0 +1,37 @@
+package com.example.vkr2.repository;
+
+import com.example.vkr2.entity.OdometerTelemetryChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface OdometerTelemetryChunkRepository extends JpaRepository<OdometerTelemetryChunk, Long> {
+    Optional<OdometerTelemetryChunk> findByCarIdAndChunkDate(Long carId, LocalDate chunkDate);
+
+    // Диапазонное чтение по индексу (car_id, chunk_date)
+    @Query("SELECT c FROM OdometerTelemetryChunk c WHERE c.carId = :carId AND " +
+            "c.chunkDate BETWEEN :fromDate AND :toDate ORDER BY c.chunkDate ASC")
+    List<OdometerTelemetryChunk> findChunksInRange(@Param("carId") Long carId,
+                                                   @Param("fromDate") LocalDate fromDate,
+                                                   @Param("toDate") LocalDate toDate);
+
+    // Статистика хранения: количество блоков, показаний и байт
+    @Query(value = "SELECT COUNT(*), COALESCE(SUM(sample_count), 0), COALESCE(SUM(OCTET_LENGTH(data)), 0) " +
+            "FROM odometer_telemetry_chunk WHERE car_id = :carId", nativeQuery = true)
+    List<Object[]> getStorageStatsByCarId(@Param("carId") Long carId);
+
+    @Modifying
+    @Query("DELETE FROM OdometerTelemetryChunk c WHERE c.carId = :carId")
+    int deleteByCarId(@Param("carId") Long carId);
+
+    // Порционное удаление для фоновой очистки
+    @Modifying
+    @Query(value = "DELETE FROM odometer_telemetry_chunk WHERE id IN " +
+            "(SELECT id FROM odometer_telemetry_chunk WHERE car_id = :carId LIMIT :batchSize)", nativeQuery = true)
+    int deleteBatchByCarId(@Param("carId") Long carId, @Param("batchSize") int batchSize);
+}
@@ -0,0 +1,46 @@
+package com.example.vkr2.repository;
+
+import com.example.vkr2.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Строки, захваченные другим узлом, пропускаются без ожидания
+    @Query(value = "SELECT * FROM outbox_event WHERE status = 'PENDING' AND available_at <= :now " +
+            "ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockAvailableBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.example.vkr2.entity.OutboxEvent.Status.DONE, " +
+            "e.processedAt = :now, e.lastError = NULL WHERE e.id = :id")
+    int markDone(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.availableAt = :availableAt, e.lastError = :error WHERE e.id = :id")
+    int markRetry(@Param("id") Long id, @Param("availableAt") LocalDateTime availableAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.example.vkr2.entity.OutboxEvent.Status.FAILED, " +
+            "e.processedAt = :now, e.lastError = :error WHERE e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.example.vkr2.entity.OutboxEvent.Status.PENDING, " +
+            "e.attempts = 0, e.availableAt = :now, e.processedAt = NULL " +
+            "WHERE e.status = com.example.vkr2.entity.OutboxEvent.Status.FAILED")
+    int resetFailed(@Param("now") LocalDateTime now);
+
+    long countByStatus(OutboxEvent.Status status);
+
+    // Порционное удаление обработанных событий
+    @Modifying
+    @Query(value = "DELETE FROM outbox_event WHERE id IN (SELECT id FROM outbox_event " +
+            "WHERE status = 'DONE' AND processed_at < :before LIMIT :batchSize)", nativeQuery = true)
+    int deleteBatchProcessedBefore(@Param("before") LocalDateTime before, @Param("batchSize") int batchSize);
+}
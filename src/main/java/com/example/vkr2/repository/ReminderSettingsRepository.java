@@ -1,11 +1,30 @@
 package com.example.vkr2.repository;
 
 import com.example.vkr2.entity.ReminderSettings;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ReminderSettingsRepository extends JpaRepository<ReminderSettings, Long> {
+    // Результат кэшируется в кэше запросов: вызывается для каждого автомобиля при каждой проверке
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<ReminderSettings> findByCarId(Long carId);
     boolean existsByCarId(Long carId);
+
+    // Для списков: автомобиль подгружается тем же запросом
+    @EntityGraph(attributePaths = "car")
+    @Query("SELECT rs FROM ReminderSettings rs")
+    List<ReminderSettings> findAllWithCar();
+
+    @Modifying
+    @Query("DELETE FROM ReminderSettings rs WHERE rs.car.id = :carId")
+    int deleteByCarId(@Param("carId") Long carId);
 }
\ No newline at end of file
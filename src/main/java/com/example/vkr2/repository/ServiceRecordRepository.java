@@ -1,18 +1,27 @@
 package com.example.vkr2.repository;
 
 import com.example.vkr2.entity.ServiceRecord;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ServiceRecordRepository extends JpaRepository<ServiceRecord, Long> {
     List<ServiceRecord> findByCarId(Long carId);
 
+    // Для списков: автомобиль подгружается тем же запросом
+    @EntityGraph(attributePaths = "car")
+    @Query("SELECT sr FROM ServiceRecord sr")
+    List<ServiceRecord> findAllWithCar();
+
     // Комплексный фильтр для сервисных записей (обновлен для DateTime)
+    @EntityGraph(attributePaths = "car")
     @Query("SELECT sr FROM ServiceRecord sr WHERE " +
             "(:search IS NULL OR :search = '' OR " +
             "LOWER(sr.details) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -31,10 +40,21 @@ public interface ServiceRecordRepository extends JpaRepository<ServiceRecord, Lo
                                                       @Param("minCost") Double minCost,
                                                       @Param("maxCost") Double maxCost);
 
+    @EntityGraph(attributePaths = "car")
     List<ServiceRecord> findByStartDateTimeBetween(LocalDateTime startDateTime, LocalDateTime endDateTime);
     List<ServiceRecord> findByPlannedEndDateTimeBetween(LocalDateTime startDateTime, LocalDateTime endDateTime);
     List<ServiceRecord> findByTotalCostBetween(Double minCost, Double maxCost);
 
+    // Выборка по статусу (индекс status, planned_end_date_time)
+    @EntityGraph(attributePaths = "car")
+    List<ServiceRecord> findByStatus(ServiceRecord.ServiceStatus status);
+
+    // Просроченные записи: плановое окончание прошло, а работы не завершены и не отменены
+    @EntityGraph(attributePaths = "car")
+    @Query("SELECT sr FROM ServiceRecord sr WHERE sr.status IN :statuses AND sr.plannedEndDateTime < :now")
+    List<ServiceRecord> findOverdue(@Param("statuses") List<ServiceRecord.ServiceStatus> statuses,
+                                    @Param("now") LocalDateTime now);
+
     // ИСПРАВЛЕНИЕ: Добавляем LIMIT 1 для получения только одной записи
     @Query("SELECT sr FROM ServiceRecord sr WHERE sr.car.id = :carId AND sr.status = 'COMPLETED' " +
             "ORDER BY sr.completedAt DESC, sr.startDateTime DESC LIMIT 1")
@@ -79,9 +99,28 @@ public interface ServiceRecordRepository extends JpaRepository<ServiceRecord, Lo
     Optional<Long> findMaxCounterReadingByCarId(@Param("carId") Long carId);
 
     // Статистика по автомобилю
+    long countByCarId(Long carId);
+
     @Query("SELECT COUNT(sr) FROM ServiceRecord sr WHERE sr.car.id = :carId AND sr.status = 'COMPLETED'")
     Long countCompletedServicesByCarId(@Param("carId") Long carId);
 
     @Query("SELECT SUM(sr.totalCost) FROM ServiceRecord sr WHERE sr.car.id = :carId AND sr.status = 'COMPLETED'")
     Optional<Double> sumTotalCostByCarId(@Param("carId") Long carId);
+
+    // ID записей автомобиля для журнала аудита перед массовым удалением
+    @Query("SELECT sr.id FROM ServiceRecord sr WHERE sr.car.id = :carId")
+    List<Long> findIdsByCarId(@Param("carId") Long carId);
+
+    // Удаление всех записей автомобиля одним запросом
+    @Modifying
+    @Query("DELETE FROM ServiceRecord sr WHERE sr.car.id = :carId")
+    int deleteByCarId(@Param("carId") Long carId);
+
+    // Порционное удаление для фоновой очистки: ID порции выбираются заранее для журнала аудита
+    @Query(value = "SELECT id FROM service_record WHERE car_id = :carId LIMIT :batchSize", nativeQuery = true)
+    List<Long> findIdBatchByCarId(@Param("carId") Long carId, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("DELETE FROM ServiceRecord sr WHERE sr.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -1,16 +1,25 @@
 package com.example.vkr2.repository;
 
 import com.example.vkr2.entity.ServiceTask;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface ServiceTaskRepository extends JpaRepository<ServiceTask, Long> {
+    @EntityGraph(attributePaths = "serviceRecord.car")
     List<ServiceTask> findByServiceRecordId(Long serviceRecordId);
 
+    // Для списков: сервисная запись и автомобиль подгружаются тем же запросом
+    @EntityGraph(attributePaths = "serviceRecord.car")
+    @Query("SELECT st FROM ServiceTask st")
+    List<ServiceTask> findAllWithServiceRecord();
+
     // Комплексный фильтр для сервисных задач
+    @EntityGraph(attributePaths = "serviceRecord.car")
     @Query("SELECT st FROM ServiceTask st WHERE " +
             "(:search IS NULL OR :search = '' OR " +
             "LOWER(st.taskName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -22,4 +31,17 @@ public interface ServiceTaskRepository extends JpaRepository<ServiceTask, Long>
     @Query("SELECT st FROM ServiceTask st WHERE " +
             "LOWER(st.taskName) LIKE LOWER(CONCAT('%', :taskName, '%'))")
     List<ServiceTask> findByTaskNameContainingIgnoreCase(@Param("taskName") String taskName);
+
+    // Удаление задач всех сервисных записей автомобиля одним запросом
+    @Modifying
+    @Query("DELETE FROM ServiceTask st WHERE st.serviceRecord.id IN " +
+            "(SELECT sr.id FROM ServiceRecord sr WHERE sr.car.id = :carId)")
+    int deleteByCarId(@Param("carId") Long carId);
+
+    // Порционное удаление для фоновой очистки
+    @Modifying
+    @Query(value = "DELETE FROM service_task WHERE id IN (SELECT st.id FROM service_task st " +
+            "JOIN service_record sr ON sr.id = st.service_record_id WHERE sr.car_id = :carId LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteBatchByCarId(@Param("carId") Long carId, @Param("batchSize") int batchSize);
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.example.vkr2.repository;
+
+import com.example.vkr2.entity.WriteOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface WriteOperationRepository extends JpaRepository<WriteOperation, Long> {
+
+    Optional<WriteOperation> findByOperationId(String operationId);
+
+    // Выбирается только первая незавершённая операция каждого автомобиля: следующая станет доступна
+    // после её завершения. Операция с истёкшей арендой (узел остановился) выбирается повторно
+    @Query(value = "SELECT * FROM write_operation w WHERE w.status IN ('PENDING', 'PROCESSING') " +
+            "AND w.available_at <= :now AND w.id = (SELECT MIN(p.id) FROM write_operation p " +
+            "WHERE p.car_id = w.car_id AND p.status IN ('PENDING', 'PROCESSING')) " +
+            "ORDER BY w.id LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<WriteOperation> lockAvailableBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("UPDATE WriteOperation w SET w.status = com.example.vkr2.entity.WriteOperation.Status.SUCCEEDED, " +
+            "w.resultId = :resultId, w.error = NULL, w.completedAt = :now WHERE w.id = :id")
+    int markSucceeded(@Param("id") Long id, @Param("resultId") Long resultId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE WriteOperation w SET w.status = com.example.vkr2.entity.WriteOperation.Status.PENDING, " +
+            "w.availableAt = :availableAt, w.error = :error WHERE w.id = :id")
+    int markRetry(@Param("id") Long id, @Param("availableAt") LocalDateTime availableAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE WriteOperation w SET w.status = com.example.vkr2.entity.WriteOperation.Status.FAILED, " +
+            "w.error = :error, w.completedAt = :now WHERE w.id = :id")
+    int markFailed(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("error") String error);
+
+    long countByStatus(WriteOperation.Status status);
+
+    // Порционное удаление завершённых операций
+    @Modifying
+    @Query(value = "DELETE FROM write_operation WHERE id IN (SELECT id FROM write_operation " +
+            "WHERE status IN ('SUCCEEDED', 'FAILED') AND completed_at < :before LIMIT :batchSize)", nativeQuery = true)
+    int deleteBatchCompletedBefore(@Param("before") LocalDateTime before, @Param("batchSize") int batchSize);
+}
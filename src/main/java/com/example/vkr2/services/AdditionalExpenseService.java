@@ -29,7 +29,7 @@ public class AdditionalExpenseService {
     @Transactional
     public AdditionalExpenseResponse addAdditionalExpense(AdditionalExpenseRequest request) {
         logger.info("Adding additional expense for car ID: {}", request.getCarId());
-        Car car = carRepository.findById(request.getCarId())
+        Car car = carRepository.findActiveById(request.getCarId())
                 .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + request.getCarId() + " не найден"));
 
         AdditionalExpense expense = AdditionalExpense.builder()
@@ -51,7 +51,7 @@ public class AdditionalExpenseService {
         AdditionalExpense existingExpense = additionalExpenseRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Дополнительный расход с ID " + id + " не найден"));
 
-        Car car = carRepository.findById(request.getCarId())
+        Car car = carRepository.findActiveById(request.getCarId())
                 .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + request.getCarId() + " не найден"));
 
         existingExpense.setCar(car);
@@ -69,7 +69,7 @@ public class AdditionalExpenseService {
     public List<AdditionalExpenseResponse> getAllAdditionalExpenses() {
         logger.info("Fetching all additional expenses");
         try {
-            return additionalExpenseRepository.findAll().stream()
+            return additionalExpenseRepository.findAllWithCar().stream()
                     .map(this::mapToResponse)
                     .collect(Collectors.toList());
         } catch (Exception e) {
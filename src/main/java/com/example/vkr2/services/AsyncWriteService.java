@@ -0,0 +1,346 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.DTO.AdditionalExpenseRequest;
+import com.example.vkr2.DTO.FuelEntryRequest;
+import com.example.vkr2.DTO.WriteOperationResponse;
+import com.example.vkr2.entity.WriteOperation;
+import com.example.vkr2.repository.WriteOperationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Асинхронная запись заправок и дополнительных расходов.
+ * <p>
+ * Запрос сохраняется в write_operation одной вставкой, клиент получает 202 и ID операции.
+ * Фоновый обработчик выбирает операции запросом FOR UPDATE SKIP LOCKED - не больше одной незавершённой
+ * на автомобиль, поэтому операции одного автомобиля применяются строго в порядке приёма (проверка
+ * показаний счётчика зависит от предыдущих записей), а разных автомобилей - параллельно.
+ * Запись и отметка об успехе выполняются в одной транзакции. Ошибки валидации завершают операцию
+ * со статусом FAILED, прочие ошибки повторяются с задержкой.
+ * Имя пользователя сохраняется при приёме, и обработчик применяет операцию с его контекстом безопасности,
+ * чтобы журнал аудита и чтение своих записей видели автора запроса, а не system.
+ */
+@Service
+public class AsyncWriteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncWriteService.class);
+
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final WriteOperationRepository writeOperationRepository;
+    private final FuelEntryService fuelEntryService;
+    private final AdditionalExpenseService additionalExpenseService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${async-writes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${async-writes.batch-size:50}")
+    private int batchSize;
+
+    @Value("${async-writes.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${async-writes.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${async-writes.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${async-writes.retry-base-delay-ms:1000}")
+    private long retryBaseDelayMs;
+
+    @Value("${async-writes.retention-days:3}")
+    private int retentionDays;
+
+    @Value("${async-writes.prune-batch-size:5000}")
+    private int pruneBatchSize;
+
+    private ThreadPoolExecutor executor;
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+
+    public AsyncWriteService(WriteOperationRepository writeOperationRepository,
+                             FuelEntryService fuelEntryService,
+                             AdditionalExpenseService additionalExpenseService,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.writeOperationRepository = writeOperationRepository;
+        this.fuelEntryService = fuelEntryService;
+        this.additionalExpenseService = additionalExpenseService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Очередь не длиннее порции: операции не захватываются, пока их некому выполнить
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "async-write-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param prefer значение заголовка Prefer
+     * @return true, если клиент просит асинхронную обработку и она включена
+     */
+    public boolean isAsyncRequested(String prefer) {
+        return enabled && prefer != null && prefer.toLowerCase().contains(RESPOND_ASYNC);
+    }
+
+    /**
+     * Приём операции записи
+     *
+     * @param type    тип операции
+     * @param carId   ID автомобиля
+     * @param request исходный запрос
+     * @return состояние принятой операции
+     */
+    public WriteOperationResponse enqueue(WriteOperation.Type type, Long carId, Object request) {
+        LocalDateTime now = LocalDateTime.now();
+        WriteOperation operation = WriteOperation.builder()
+                .operationId(UUID.randomUUID().toString())
+                .type(type)
+                .carId(carId)
+                .username(currentUsername())
+                .payload(toJson(request))
+                .createdAt(now)
+                .availableAt(now)
+                .build();
+        WriteOperation saved = writeOperationRepository.save(operation);
+        accepted.incrementAndGet();
+        logger.debug("Accepted {} operation {} for car ID: {}", type, saved.getOperationId(), carId);
+        return mapToResponse(saved);
+    }
+
+    public WriteOperationResponse getOperation(String operationId) {
+        return writeOperationRepository.findByOperationId(operationId)
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new EntityNotFoundException("Операция " + operationId + " не найдена"));
+    }
+
+    @Scheduled(fixedDelayString = "${async-writes.poll-interval-ms:200}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int capacity = executor.getQueue().remainingCapacity();
+            while (capacity > 0) {
+                List<WriteOperation> batch = claimBatch(capacity);
+                for (WriteOperation operation : batch) {
+                    try {
+                        executor.execute(() -> apply(operation));
+                    } catch (RejectedExecutionException e) {
+                        // Аренда истечёт, и операция будет выбрана повторно
+                        logger.warn("Async write executor saturated, operation {} postponed", operation.getOperationId());
+                    }
+                }
+                if (batch.size() < capacity) {
+                    return;
+                }
+                capacity = executor.getQueue().remainingCapacity();
+            }
+        } catch (Exception e) {
+            logger.error("Error polling write operations: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${async-writes.prune-interval-ms:3600000}")
+    public void pruneCompleted() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        long total = 0;
+        try {
+            while (true) {
+                Integer deleted = transactionTemplate.execute(status ->
+                        writeOperationRepository.deleteBatchCompletedBefore(before, pruneBatchSize));
+                if (deleted == null || deleted == 0) {
+                    break;
+                }
+                total += deleted;
+                if (deleted < pruneBatchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error pruning write operations: {}", e.getMessage());
+        }
+        if (total > 0) {
+            logger.info("Pruned {} completed write operations older than {} days", total, retentionDays);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", writeOperationRepository.countByStatus(WriteOperation.Status.PENDING));
+        stats.put("processing", writeOperationRepository.countByStatus(WriteOperation.Status.PROCESSING));
+        stats.put("failed", writeOperationRepository.countByStatus(WriteOperation.Status.FAILED));
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("accepted", accepted.get());
+        stats.put("succeeded", succeeded.get());
+        stats.put("failedOperations", failed.get());
+        stats.put("retried", retried.get());
+        return stats;
+    }
+
+    private List<WriteOperation> claimBatch(int limit) {
+        List<WriteOperation> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<WriteOperation> operations = writeOperationRepository.lockAvailableBatch(now, limit);
+            LocalDateTime leaseUntil = now.plusNanos(leaseMs * 1_000_000);
+            for (WriteOperation operation : operations) {
+                operation.setStatus(WriteOperation.Status.PROCESSING);
+                operation.setAvailableAt(leaseUntil);
+                operation.setAttempts(operation.getAttempts() + 1);
+            }
+            return operations;
+        });
+        return batch != null ? batch : List.of();
+    }
+
+    private void apply(WriteOperation operation) {
+        if (operation.getUsername() != null) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                    operation.getUsername(), null, List.of()));
+            SecurityContextHolder.setContext(context);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Long resultId = switch (operation.getType()) {
+                    case FUEL_ENTRY -> fuelEntryService
+                            .addFuelEntry(fromJson(operation, FuelEntryRequest.class)).getId();
+                    case ADDITIONAL_EXPENSE -> additionalExpenseService
+                            .addAdditionalExpense(fromJson(operation, AdditionalExpenseRequest.class)).getId();
+                };
+                writeOperationRepository.markSucceeded(operation.getId(), resultId, LocalDateTime.now());
+            });
+            succeeded.incrementAndGet();
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
+            // Повтор не поможет: показания счётчика не прошли проверку или автомобиль не найден
+            markFailed(operation, e.getMessage());
+        } catch (Exception e) {
+            if (operation.getAttempts() >= maxAttempts) {
+                markFailed(operation, e.getMessage());
+            } else {
+                markRetry(operation, e.getMessage());
+            }
+        } finally {
+            // Поток пула переиспользуется: контекст не должен достаться следующей операции
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void markFailed(WriteOperation operation, String error) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    writeOperationRepository.markFailed(operation.getId(), LocalDateTime.now(), truncate(error)));
+            failed.incrementAndGet();
+            logger.warn("Write operation {} failed: {}", operation.getOperationId(), error);
+        } catch (Exception e) {
+            logger.error("Error recording failure of write operation {}: {}", operation.getOperationId(), e.getMessage());
+        }
+    }
+
+    private void markRetry(WriteOperation operation, String error) {
+        long delayMs = retryBaseDelayMs << Math.min(operation.getAttempts() - 1, 20);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    writeOperationRepository.markRetry(operation.getId(),
+                            LocalDateTime.now().plusNanos(delayMs * 1_000_000), truncate(error)));
+            retried.incrementAndGet();
+            logger.warn("Write operation {} attempt {} failed, retry in {} ms: {}",
+                    operation.getOperationId(), operation.getAttempts(), delayMs, error);
+        } catch (Exception e) {
+            logger.error("Error scheduling retry of write operation {}: {}", operation.getOperationId(), e.getMessage());
+        }
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return null;
+    }
+
+    private String toJson(Object request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Не удалось сериализовать запрос", e);
+        }
+    }
+
+    private <T> T fromJson(WriteOperation operation, Class<T> type) {
+        try {
+            return objectMapper.readValue(operation.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Не удалось прочитать запрос операции " + operation.getOperationId(), e);
+        }
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private WriteOperationResponse mapToResponse(WriteOperation operation) {
+        WriteOperationResponse response = new WriteOperationResponse();
+        response.setOperationId(operation.getOperationId());
+        response.setType(operation.getType());
+        response.setCarId(operation.getCarId());
+        response.setStatus(operation.getStatus());
+        response.setResultId(operation.getResultId());
+        response.setError(operation.getError());
+        response.setCreatedAt(operation.getCreatedAt());
+        response.setCompletedAt(operation.getCompletedAt());
+        return response;
+    }
+}
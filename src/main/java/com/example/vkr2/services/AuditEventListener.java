@@ -0,0 +1,239 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.entity.AuditLogEntry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Сбор изменений сущностей для журнала аудита через события Hibernate.
+ * <p>
+ * Слушатели срабатывают после фиксации транзакции, поэтому откаченные изменения в журнал не попадают.
+ * Для изменения записываются только изменённые поля со старым и новым значением, связи - по ID.
+ * Пользователь берётся из контекста безопасности (JWT); изменения из фоновых задач записываются как system.
+ * Массовые запросы DELETE событий Hibernate не порождают, их удаления передаются через {@link #recordBulkDelete}.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditEventListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final String SYSTEM_USER = "system";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditLogWriter auditLogWriter;
+
+    @Value("${audit.entities:Car,FuelEntry,ServiceRecord}")
+    private List<String> auditedEntities;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return isAudited(persister);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        EntityPersister persister = event.getPersister();
+        if (!isAudited(persister)) {
+            return;
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        Object[] state = event.getState();
+        for (int i = 0; i < names.length; i++) {
+            if (!types[i].isCollectionType() && state[i] != null) {
+                changes.put(names[i], change(null, auditValue(state[i], persister)));
+            }
+        }
+        record(persister, event.getId(), AuditLogEntry.Action.INSERT, changes);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        if (!isAudited(persister)) {
+            return;
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        Object[] state = event.getState();
+        Object[] oldState = event.getOldState();
+        int[] dirty = event.getDirtyProperties();
+        if (dirty != null) {
+            for (int i : dirty) {
+                if (!types[i].isCollectionType()) {
+                    changes.put(names[i], change(oldState != null ? auditValue(oldState[i], persister) : null,
+                            auditValue(state[i], persister)));
+                }
+            }
+        } else {
+            for (int i = 0; i < names.length; i++) {
+                if (types[i].isCollectionType()) {
+                    continue;
+                }
+                Object newValue = auditValue(state[i], persister);
+                Object oldValue = oldState != null ? auditValue(oldState[i], persister) : null;
+                if (oldState == null || !Objects.equals(oldValue, newValue)) {
+                    changes.put(names[i], change(oldValue, newValue));
+                }
+            }
+        }
+        if (!changes.isEmpty()) {
+            record(persister, event.getId(), AuditLogEntry.Action.UPDATE, changes);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        EntityPersister persister = event.getPersister();
+        if (!isAudited(persister)) {
+            return;
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        Object[] state = event.getDeletedState();
+        if (state != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (!types[i].isCollectionType() && state[i] != null) {
+                    changes.put(names[i], change(auditValue(state[i], persister), null));
+                }
+            }
+        }
+        record(persister, event.getId(), AuditLogEntry.Action.DELETE, changes);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Транзакция откачена: изменения не было
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Транзакция откачена: изменения не было
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Транзакция откачена: изменения не было
+    }
+
+    /**
+     * Запись удалений, выполненных массовым запросом в обход событий Hibernate.
+     * События ставятся в буфер после фиксации текущей транзакции, как и у слушателей.
+     *
+     * @param entityClass класс удалённых сущностей
+     * @param ids         ID удалённых записей
+     * @param changes     общие для всех записей значения полей до удаления, например связь с автомобилем
+     */
+    public void recordBulkDelete(Class<?> entityClass, Collection<?> ids, Map<String, Object> changes) {
+        String entityType = entityClass.getSimpleName();
+        if (ids.isEmpty() || !auditedEntities.contains(entityType)) {
+            return;
+        }
+        String username = currentUsername();
+        Map<String, Object> deleted = new LinkedHashMap<>();
+        changes.forEach((name, value) -> deleted.put(name, change(value, null)));
+        Runnable capture = () -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (Object id : ids) {
+                auditLogWriter.record(new AuditLogWriter.AuditEvent(
+                        entityType, String.valueOf(id), AuditLogEntry.Action.DELETE, username, deleted, now));
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    capture.run();
+                }
+            });
+        } else {
+            capture.run();
+        }
+    }
+
+    private void record(EntityPersister persister, Object id, AuditLogEntry.Action action, Map<String, Object> changes) {
+        auditLogWriter.record(new AuditLogWriter.AuditEvent(
+                persister.getMappedClass().getSimpleName(),
+                String.valueOf(id),
+                action,
+                currentUsername(),
+                changes,
+                LocalDateTime.now()));
+    }
+
+    private boolean isAudited(EntityPersister persister) {
+        return auditedEntities.contains(persister.getMappedClass().getSimpleName());
+    }
+
+    private Map<String, Object> change(Object oldValue, Object newValue) {
+        Map<String, Object> change = new HashMap<>(2);
+        change.put("old", oldValue);
+        change.put("new", newValue);
+        return change;
+    }
+
+    // Связанная сущность записывается по ID, перечисление - по имени
+    private Object auditValue(Object value, EntityPersister persister) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof HibernateProxy || value.getClass().isAnnotationPresent(Entity.class)) {
+            return persister.getFactory().getPersistenceUnitUtil().getIdentifier(value);
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        return value;
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return authentication.getName();
+        }
+        return SYSTEM_USER;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.DTO.AuditLogResponse;
+import com.example.vkr2.entity.AuditLogEntry;
+import com.example.vkr2.repository.AuditLogRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class AuditLogService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final AuditLogRepository auditLogRepository;
+
+    @Transactional(readOnly = true)
+    public Page<AuditLogResponse> getAuditLog(String entityType, String entityId, String username,
+                                              LocalDateTime from, LocalDateTime to, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                Sort.by(Sort.Direction.DESC, "changedAt").and(Sort.by(Sort.Direction.DESC, "id")));
+        return auditLogRepository.findWithFilters(blankToNull(entityType), blankToNull(entityId), blankToNull(username),
+                        from, to, pageRequest)
+                .map(this::mapToResponse);
+    }
+
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private AuditLogResponse mapToResponse(AuditLogEntry entry) {
+        AuditLogResponse response = new AuditLogResponse();
+        response.setId(entry.getId());
+        response.setEntityType(entry.getEntityType());
+        response.setEntityId(entry.getEntityId());
+        response.setAction(entry.getAction());
+        response.setUsername(entry.getUsername());
+        response.setChanges(entry.getChanges());
+        response.setChangedAt(entry.getChangedAt());
+        return response;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.entity.AuditLogEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронная запись журнала аудита.
+ * <p>
+ * События кладутся в кольцевой буфер без блокировок и не задерживают транзакцию, в которой произошло
+ * изменение. Фоновый поток забирает их порциями и пишет в audit_log пакетными INSERT через JDBC.
+ * Если буфер заполнен, производитель ждёт не дольше audit.offer-timeout-ms (обратное давление),
+ * после чего событие отбрасывается; ожидания и потери считаются в статистике.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO audit_log (entity_type, entity_id, action, username, changes, changed_at) " +
+            "VALUES (?, ?, ?, ?, CAST(? AS jsonb), ?)";
+
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.buffer-capacity:65536}")
+    private int bufferCapacity;
+
+    @Value("${audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${audit.offer-timeout-ms:0}")
+    private long offerTimeoutMs;
+
+    private AuditRingBuffer<AuditEvent> buffer;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    private final AtomicLong captured = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        buffer = new AuditRingBuffer<>(bufferCapacity);
+        if (!enabled) {
+            logger.info("Audit log is disabled");
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("Audit log writer started, buffer capacity {}", buffer.capacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            writerThread.join(5000);
+        }
+    }
+
+    /**
+     * Постановка события в буфер
+     *
+     * @param event событие аудита
+     */
+    public void record(AuditEvent event) {
+        if (!running) {
+            return;
+        }
+        if (buffer.offer(event)) {
+            captured.incrementAndGet();
+            return;
+        }
+        if (offerTimeoutMs > 0) {
+            backpressureWaits.incrementAndGet();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+            while (System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                if (buffer.offer(event)) {
+                    captured.incrementAndGet();
+                    return;
+                }
+            }
+        }
+        if (dropped.incrementAndGet() % 1000 == 1) {
+            logger.warn("Audit buffer full, {} events dropped so far", dropped.get());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", running);
+        stats.put("bufferCapacity", buffer.capacity());
+        stats.put("buffered", buffer.size());
+        stats.put("captured", captured.get());
+        stats.put("written", written.get());
+        stats.put("batches", batches.get());
+        stats.put("dropped", dropped.get());
+        stats.put("backpressureWaits", backpressureWaits.get());
+        stats.put("writeFailures", writeFailures.get());
+        return stats;
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            drain(batch);
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+            // Неполная порция: ждём, пока накопятся события
+            if (batch.size() < batchSize) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            }
+            batch.clear();
+        }
+        // Остановка: записываем то, что осталось в буфере
+        do {
+            batch.clear();
+            drain(batch);
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void drain(List<AuditEvent> batch) {
+        AuditEvent event;
+        while (batch.size() < batchSize && (event = buffer.poll()) != null) {
+            batch.add(event);
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (AuditEvent event : batch) {
+            rows.add(new Object[]{event.entityType(), event.entityId(), event.action().name(),
+                    event.username(), toJson(event.changes()), event.changedAt()});
+        }
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                written.addAndGet(rows.size());
+                batches.incrementAndGet();
+                return;
+            } catch (Exception e) {
+                writeFailures.incrementAndGet();
+                logger.error("Error writing audit batch of {} events (attempt {}): {}", rows.size(), attempt, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs * attempt));
+            }
+        }
+        dropped.addAndGet(rows.size());
+    }
+
+    private String toJson(Map<String, Object> changes) {
+        try {
+            return objectMapper.writeValueAsString(changes);
+        } catch (Exception e) {
+            logger.warn("Error serializing audit changes: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Изменение сущности
+     *
+     * @param entityType тип сущности
+     * @param entityId   ID сущности
+     * @param action     действие
+     * @param username   пользователь
+     * @param changes    изменённые поля: старое и новое значение
+     * @param changedAt  время изменения
+     */
+    public record AuditEvent(String entityType, String entityId, AuditLogEntry.Action action,
+                             String username, Map<String, Object> changes, LocalDateTime changedAt) {
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.vkr2.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Шина инвалидации локальных кэшей между экземплярами приложения через PostgreSQL LISTEN/NOTIFY.
+ * <p>
+ * Ключи изменённых записей ("регион:идентификатор") копятся после фиксации транзакции
+ * и отправляются пачкой раз в несколько десятков миллисекунд; при слишком большой пачке
+ * отправляется полный сброс "*". Приём идёт на отдельном соединении вне пула.
+ * После переподключения локальные кэши сбрасываются полностью: сообщения за время разрыва потеряны.
+ */
+@Service
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final String FLUSH_ALL = "*";
+    // Ограничение PostgreSQL на размер сообщения NOTIFY - 8000 байт
+    private static final int MAX_PAYLOAD_BYTES = 7500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectProvider<CacheInvalidationHandler> handlers;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+
+    @Value("${cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.invalidation.channel:cache_invalidation}")
+    private String channel;
+
+    @Value("${cache.invalidation.max-batch-keys:500}")
+    private int maxBatchKeys;
+
+    @Value("${cache.invalidation.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listenerThread;
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                DataSourceProperties dataSourceProperties,
+                                ObjectProvider<CacheInvalidationHandler> handlers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.handlers = handlers;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("Недопустимое имя канала инвалидации: " + channel);
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        logger.info("Cache invalidation bus started on channel {} as node {}", channel, nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    /**
+     * Публикация изменения записи: сообщение уйдёт после фиксации текущей транзакции
+     *
+     * @param region регион кэша
+     * @param id     идентификатор записи или "*" для всего региона
+     */
+    public void publish(String region, Object id) {
+        if (!enabled) {
+            return;
+        }
+        String key = region + ":" + id;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingKeys.add(key);
+                }
+            });
+        } else {
+            pendingKeys.add(key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.coalesce-ms:50}")
+    public void flushPending() {
+        if (!enabled || pendingKeys.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(pendingKeys);
+        pendingKeys.removeAll(keys);
+
+        try {
+            if (keys.size() > maxBatchKeys) {
+                send(FLUSH_ALL);
+                return;
+            }
+            // Сообщение ограничено по размеру, длинный список ключей уходит несколькими сообщениями
+            int maxKeysLength = MAX_PAYLOAD_BYTES - nodeId.length() - 1;
+            StringBuilder payload = new StringBuilder();
+            for (String key : keys) {
+                if (payload.length() > 0 && payload.length() + key.length() + 1 > maxKeysLength) {
+                    send(payload.toString());
+                    payload.setLength(0);
+                }
+                if (payload.length() > 0) {
+                    payload.append(',');
+                }
+                payload.append(key);
+            }
+            send(payload.toString());
+        } catch (Exception e) {
+            logger.error("Error publishing cache invalidation for {} keys: {}", keys.size(), e.getMessage());
+        }
+    }
+
+    private void send(String keys) {
+        String payload = nodeId + "|" + keys;
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            payload = nodeId + "|" + FLUSH_ALL;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, payload);
+    }
+
+    /**
+     * @return true, если соединение для приёма сообщений установлено
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    logger.warn("Cache invalidation listener reconnected, flushing local caches");
+                    evictAllLocal();
+                }
+                connectedBefore = true;
+                listening = true;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                listening = false;
+                if (!running) {
+                    return;
+                }
+                logger.warn("Cache invalidation listener disconnected: {}", e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            // Свои изменения уже отражены в локальных кэшах
+            return;
+        }
+
+        for (String key : payload.substring(separator + 1).split(",")) {
+            if (key.equals(FLUSH_ALL)) {
+                evictAllLocal();
+                return;
+            }
+            int colon = key.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String region = key.substring(0, colon);
+            String id = key.substring(colon + 1);
+            handlers.orderedStream()
+                    .filter(handler -> handler.regions().contains(region))
+                    .forEach(handler -> evict(handler, region, id));
+        }
+    }
+
+    private void evict(CacheInvalidationHandler handler, String region, String id) {
+        try {
+            if (id.equals(FLUSH_ALL)) {
+                handler.evictAll();
+            } else {
+                handler.evict(region, id);
+            }
+        } catch (Exception e) {
+            logger.error("Error evicting {}:{} from {}: {}", region, id, handler.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+
+    private void evictAllLocal() {
+        handlers.orderedStream().forEach(handler -> {
+            try {
+                handler.evictAll();
+            } catch (Exception e) {
+                logger.error("Error flushing {}: {}", handler.getClass().getSimpleName(), e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.vkr2.services;
+
+import java.util.Set;
+
+/**
+ * Локальный кэш, который сбрасывается по сообщениям шины инвалидации
+ */
+public interface CacheInvalidationHandler {
+
+    /**
+     * @return регионы (первая часть ключа "регион:идентификатор"), которые обслуживает кэш
+     */
+    Set<String> regions();
+
+    /**
+     * Сброс записи, изменённой на другом узле
+     *
+     * @param region регион
+     * @param id     идентификатор записи
+     */
+    void evict(String region, String id);
+
+    /**
+     * Полный сброс: часть сообщений могла быть потеряна
+     */
+    void evictAll();
+}
@@ -0,0 +1,59 @@
+package com.example.vkr2.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Отчёт о кэше второго уровня: попадания, промахи и доля попаданий по каждому региону
+     */
+    public Map<String, Object> getCacheStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new HashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            regions.put(regionName, regionStats(region.getHitCount(), region.getMissCount(),
+                    region.getPutCount(), region.getElementCountInMemory()));
+        }
+
+        CacheRegionStatistics queryRegion = statistics.getQueryRegionStatistics("default-query-results-region");
+        if (queryRegion != null) {
+            regions.put("default-query-results-region", regionStats(queryRegion.getHitCount(),
+                    queryRegion.getMissCount(), queryRegion.getPutCount(), queryRegion.getElementCountInMemory()));
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        stats.put("regions", regions);
+        stats.put("secondLevelCache", regionStats(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount(), -1));
+        stats.put("queryCache", regionStats(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount(), -1));
+        return stats;
+    }
+
+    private Map<String, Object> regionStats(long hits, long misses, long puts, long elements) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("puts", puts);
+        stats.put("hitRatio", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        if (elements >= 0) {
+            stats.put("elementsInMemory", elements);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.entity.Car;
+import com.example.vkr2.entity.FuelEntry;
+import com.example.vkr2.entity.ServiceRecord;
+import com.example.vkr2.repository.*;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Фоновая очистка истории мягко удалённых автомобилей.
+ * <p>
+ * Записи удаляются порциями, каждая порция - в отдельной короткой транзакции с паузой между ними,
+ * чтобы не держать блокировки и не нагружать базу во время обычной работы.
+ * Массовые удаления обходят слушатели аудита, поэтому удаление сервисных записей, заправок и самого
+ * автомобиля записывается в журнал аудита явно, в транзакции порции.
+ */
+@Service
+@RequiredArgsConstructor
+public class CarPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarPurgeService.class);
+
+    private final CarRepository carRepository;
+    private final ServiceTaskRepository serviceTaskRepository;
+    private final ServiceRecordRepository serviceRecordRepository;
+    private final FuelEntryRepository fuelEntryRepository;
+    private final AdditionalExpenseRepository additionalExpenseRepository;
+    private final NotificationRepository notificationRepository;
+    private final OdometerTelemetryChunkRepository odometerTelemetryChunkRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final AuditEventListener auditEventListener;
+
+    @Value("${car.deletion.purge-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${car.deletion.purge-batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    @Scheduled(fixedDelayString = "${car.deletion.purge-interval-ms:60000}")
+    public void purgeDeletedCars() {
+        List<Long> carIds = carRepository.findIdsPendingPurge();
+        if (carIds.isEmpty()) {
+            return;
+        }
+        logger.info("Purging history of {} soft-deleted cars", carIds.size());
+
+        for (Long carId : carIds) {
+            try {
+                purgeCar(carId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Purge interrupted at car ID: {}", carId);
+                return;
+            } catch (Exception e) {
+                logger.error("Error purging history of car ID {}: {}", carId, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void purgeCar(Long carId) throws InterruptedException {
+        // Порядок важен: задачи ссылаются на сервисные записи
+        long deleted = purgeInBatches(carId, serviceTaskRepository::deleteBatchByCarId)
+                + purgeInBatches(carId, (id, size) -> deleteAudited(ServiceRecord.class, id,
+                        serviceRecordRepository.findIdBatchByCarId(id, size), serviceRecordRepository::deleteByIdIn))
+                + purgeInBatches(carId, (id, size) -> deleteAudited(FuelEntry.class, id,
+                        fuelEntryRepository.findIdBatchByCarId(id, size), fuelEntryRepository::deleteByIdIn))
+                + purgeInBatches(carId, additionalExpenseRepository::deleteBatchByCarId)
+                + purgeInBatches(carId, notificationRepository::deleteBatchByCarId)
+                + purgeInBatches(carId, odometerTelemetryChunkRepository::deleteBatchByCarId);
+
+        newTransactionTemplate().executeWithoutResult(status -> {
+            if (carRepository.deleteCarById(carId) > 0) {
+                auditEventListener.recordBulkDelete(Car.class, List.of(carId), Map.of());
+            }
+        });
+        cacheInvalidationBus.publish("car", carId);
+        logger.info("Car ID: {} purged, {} history rows deleted", carId, deleted);
+    }
+
+    private long purgeInBatches(Long carId, BatchDelete batchDelete) throws InterruptedException {
+        TransactionTemplate transactionTemplate = newTransactionTemplate();
+        long total = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> batchDelete.delete(carId, batchSize));
+            if (deleted == null || deleted == 0) {
+                return total;
+            }
+            total += deleted;
+            if (deleted < batchSize) {
+                return total;
+            }
+            Thread.sleep(batchPauseMs);
+        }
+    }
+
+    private int deleteAudited(Class<?> entityClass, Long carId, List<Long> ids, ToIntFunction<List<Long>> delete) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = delete.applyAsInt(ids);
+        auditEventListener.recordBulkDelete(entityClass, ids, Map.of("car", carId));
+        return deleted;
+    }
+
+    // Имя транзакции направляет очистку в пул аналитики и пакетных задач
+    private TransactionTemplate newTransactionTemplate() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setName(CarPurgeService.class.getName() + ".purgeCar");
+        return transactionTemplate;
+    }
+
+    @FunctionalInterface
+    private interface BatchDelete {
+        int delete(Long carId, int batchSize);
+    }
+}
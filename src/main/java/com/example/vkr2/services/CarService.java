@@ -7,13 +7,14 @@ import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,10 +30,14 @@ public class CarService {
     private final AdditionalExpenseRepository additionalExpenseRepository;
     private final ServiceRecordRepository serviceRecordRepository;
     private final ServiceTaskRepository serviceTaskRepository;
+    private final NotificationRepository notificationRepository;
+    private final OdometerTelemetryChunkRepository odometerTelemetryChunkRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final OutboxService outboxService;
+    private final AuditEventListener auditEventListener;
 
-    @Autowired
-    @Lazy
-    private NotificationService notificationService;
+    @Value("${car.deletion.soft-delete:false}")
+    private boolean softDelete;
 
     @Transactional
     public CarResponse addCar(Car car) {
@@ -65,7 +70,7 @@ public class CarService {
     public List<CarResponse> getAllCars() {
         logger.info("Fetching all cars");
         try {
-            List<Car> cars = carRepository.findAll();
+            List<Car> cars = carRepository.findAllActive();
             return cars.stream()
                     .map(this::mapToCarResponse)
                     .collect(Collectors.toList());
@@ -94,7 +99,7 @@ public class CarService {
     public CarResponse getCarById(Long id) {
         logger.info("Fetching car with ID: {}", id);
         try {
-            Car car = carRepository.findById(id)
+            Car car = carRepository.findActiveById(id)
                     .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + id + " не найден"));
             return mapToCarResponse(car);
         } catch (Exception e) {
@@ -107,7 +112,7 @@ public class CarService {
     public CarResponse updateCar(Long id, Car car) {
         logger.info("Updating car with ID: {}", id);
         try {
-            Car existingCar = carRepository.findById(id)
+            Car existingCar = carRepository.findActiveById(id)
                     .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + id + " не найден"));
 
             if (!existingCar.getVin().equals(car.getVin()) && carRepository.findByVin(car.getVin()).isPresent()) {
@@ -120,6 +125,8 @@ public class CarService {
                 throw new IllegalArgumentException("Автомобиль с таким госномером уже существует");
             }
 
+            boolean odometerChanged = !Objects.equals(existingCar.getOdometr(), car.getOdometr());
+
             existingCar.setVin(car.getVin());
             existingCar.setLicensePlate(car.getLicensePlate());
             existingCar.setBrand(car.getBrand());
@@ -140,6 +147,10 @@ public class CarService {
             existingCar.setDescription(car.getDescription());
 
             Car updatedCar = carRepository.save(existingCar);
+            if (odometerChanged) {
+                outboxService.publish(OutboxService.CAR_ODOMETER_CHANGED, OutboxService.AGGREGATE_CAR, updatedCar.getId(),
+                        Map.of("odometer", updatedCar.getOdometr()));
+            }
             logger.info("Car updated with ID: {}", updatedCar.getId());
             return mapToCarResponse(updatedCar);
         } catch (Exception e) {
@@ -150,9 +161,9 @@ public class CarService {
 
     @Transactional
     public void deleteCar(Long id) {
-        logger.info("Deleting car with ID: {}", id);
+        logger.info("Deleting car with ID: {} (soft delete: {})", id, softDelete);
         try {
-            Car car = carRepository.findById(id)
+            Car car = carRepository.findActiveById(id)
                     .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + id + " не найден"));
 
             // 1. Отвязываем водителя перед удалением автомобиля
@@ -160,71 +171,47 @@ public class CarService {
                 Driver driver = car.getDriver();
                 car.setDriver(null);
                 driver.setCar(null);
-                carRepository.save(car); // Сохраняем изменения
+                carRepository.saveAndFlush(car); // Внешние ключи должны сняться до массового удаления
                 logger.info("Driver unassigned from car ID: {} before deletion", id);
             }
 
             // 2. Удаляем настройки напоминаний
-            try {
-                Optional<ReminderSettings> reminderSettings = reminderSettingsRepository.findByCarId(id);
-                if (reminderSettings.isPresent()) {
-                    reminderSettingsRepository.delete(reminderSettings.get());
-                    logger.info("Reminder settings deleted for car ID: {}", id);
-                }
-            } catch (Exception e) {
-                logger.error("Error deleting reminder settings for car ID {}: {}", id, e.getMessage());
-            }
-
-            // 3. Деактивируем связанные уведомления
-            try {
-                if (notificationService != null) {
-                    notificationService.deactivateNotificationsForCar(id);
-                    logger.info("Notifications deactivated for car ID: {}", id);
-                }
-            } catch (Exception e) {
-                logger.error("Error deactivating notifications for car ID {}: {}", id, e.getMessage());
-            }
-
-            // 4. Удаляем записи о заправках
-            try {
-                List<FuelEntry> fuelEntries = fuelEntryRepository.findByCarId(id);
-                if (!fuelEntries.isEmpty()) {
-                    fuelEntryRepository.deleteAll(fuelEntries);
-                    logger.info("Deleted {} fuel entries for car ID: {}", fuelEntries.size(), id);
-                }
-            } catch (Exception e) {
-                logger.error("Error deleting fuel entries for car ID {}: {}", id, e.getMessage());
-            }
-
-            // 5. Удаляем дополнительные расходы
-            try {
-                List<AdditionalExpense> additionalExpenses = additionalExpenseRepository.findByCarId(id);
-                if (!additionalExpenses.isEmpty()) {
-                    additionalExpenseRepository.deleteAll(additionalExpenses);
-                    logger.info("Deleted {} additional expenses for car ID: {}", additionalExpenses.size(), id);
-                }
-            } catch (Exception e) {
-                logger.error("Error deleting additional expenses for car ID {}: {}", id, e.getMessage());
-            }
-
-            // 6. Удаляем сервисные задачи через сервисные записи
-            try {
-                List<ServiceRecord> serviceRecords = serviceRecordRepository.findByCarId(id);
-                for (ServiceRecord serviceRecord : serviceRecords) {
-                    if (serviceRecord.getServiceTasks() != null) {
-                        serviceTaskRepository.deleteAll(serviceRecord.getServiceTasks());
-                    }
-                }
-                if (!serviceRecords.isEmpty()) {
-                    serviceRecordRepository.deleteAll(serviceRecords);
-                    logger.info("Deleted {} service records for car ID: {}", serviceRecords.size(), id);
-                }
-            } catch (Exception e) {
-                logger.error("Error deleting service records for car ID {}: {}", id, e.getMessage());
+            // Массовые запросы обходят слушатели сущностей, другие узлы оповещаем явно и только о записи автомобиля
+            reminderSettingsRepository.findByCarId(id).ifPresent(settings -> {
+                reminderSettingsRepository.deleteByCarId(id);
+                cacheInvalidationBus.publish("reminder-settings", settings.getId());
+            });
+
+            if (softDelete) {
+                // Мягкое удаление: автомобиль скрывается сразу, история очищается CarPurgeService
+                int deactivated = notificationRepository.deactivateByCarId(id);
+                car.setDeletedAt(LocalDateTime.now());
+                carRepository.save(car);
+                logger.info("Car ID: {} marked as deleted, {} notifications deactivated, history purge scheduled",
+                        id, deactivated);
+                return;
             }
 
-            // 7. Наконец удаляем сам автомобиль
-            carRepository.delete(car);
+            // 3. Массовые запросы обходят слушатели аудита, поэтому удаляемые записи фиксируем заранее
+            Map<String, Object> carLink = Map.of("car", id);
+            auditEventListener.recordBulkDelete(ServiceRecord.class, serviceRecordRepository.findIdsByCarId(id), carLink);
+            auditEventListener.recordBulkDelete(FuelEntry.class, fuelEntryRepository.findIdsByCarId(id), carLink);
+            auditEventListener.recordBulkDelete(Car.class, List.of(id), Map.of());
+
+            // 4. Удаляем историю автомобиля по одному запросу на таблицу, в порядке зависимостей
+            int tasks = serviceTaskRepository.deleteByCarId(id);
+            int records = serviceRecordRepository.deleteByCarId(id);
+            int fuelEntries = fuelEntryRepository.deleteByCarId(id);
+            int expenses = additionalExpenseRepository.deleteByCarId(id);
+            int notifications = notificationRepository.deleteByCarId(id);
+            int telemetryChunks = odometerTelemetryChunkRepository.deleteByCarId(id);
+            logger.info("Deleted for car ID {}: {} service tasks, {} service records, {} fuel entries, " +
+                            "{} additional expenses, {} notifications, {} telemetry chunks",
+                    id, tasks, records, fuelEntries, expenses, notifications, telemetryChunks);
+
+            // 5. Наконец удаляем сам автомобиль
+            carRepository.deleteCarById(id);
+            cacheInvalidationBus.publish("car", id);
             logger.info("Car deleted with ID: {}", id);
 
         } catch (EntityNotFoundException e) {
@@ -239,7 +226,7 @@ public class CarService {
     public CarResponse assignDriver(Long carId, Long driverId) {
         logger.info("Assigning driver ID: {} to car ID: {}", driverId, carId);
         try {
-            Car car = carRepository.findById(carId)
+            Car car = carRepository.findActiveById(carId)
                     .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + carId + " не найден"));
             Driver driver = driverRepository.findById(driverId)
                     .orElseThrow(() -> new EntityNotFoundException("Водитель с ID " + driverId + " не найден"));
@@ -268,7 +255,7 @@ public class CarService {
     public CarResponse unassignDriver(Long carId) {
         logger.info("Unassigning driver from car ID: {}", carId);
         try {
-            Car car = carRepository.findById(carId)
+            Car car = carRepository.findActiveById(carId)
                     .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + carId + " не найден"));
 
             if (car.getDriver() == null) {
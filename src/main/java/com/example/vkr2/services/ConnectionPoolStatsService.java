@@ -0,0 +1,43 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.JWT.config.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class ConnectionPoolStatsService {
+
+    private final List<HikariDataSource> pools;
+    private final ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+
+    /**
+     * Заполненность пулов соединений: активные, свободные и ожидающие потоки по каждому пулу
+     */
+    public Map<String, Object> getPoolStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (HikariDataSource pool : pools) {
+            Map<String, Object> poolStats = new HashMap<>();
+            poolStats.put("maximumPoolSize", pool.getMaximumPoolSize());
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean != null) {
+                poolStats.put("active", mxBean.getActiveConnections());
+                poolStats.put("idle", mxBean.getIdleConnections());
+                poolStats.put("total", mxBean.getTotalConnections());
+                poolStats.put("threadsAwaitingConnection", mxBean.getThreadsAwaitingConnection());
+                poolStats.put("saturation", pool.getMaximumPoolSize() > 0
+                        ? (double) mxBean.getActiveConnections() / pool.getMaximumPoolSize() : 0.0);
+            }
+            stats.put(pool.getPoolName(), poolStats);
+        }
+        replicaLagMonitor.ifAvailable(monitor -> stats.put("replicaLag", monitor.getStats()));
+        return stats;
+    }
+}
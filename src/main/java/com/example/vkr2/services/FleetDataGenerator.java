@@ -0,0 +1,575 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.DTO.FleetGenerationRequest;
+import com.example.vkr2.entity.CarStatus;
+import com.example.vkr2.entity.CounterType;
+import com.example.vkr2.entity.FuelEntry;
+import com.example.vkr2.entity.Notification;
+import com.example.vkr2.entity.ServiceRecord;
+import com.example.vkr2.entity.SparePart;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Генератор синтетического автопарка для нагрузочных тестов: автомобили с водителями и настройками
+ * напоминаний, монотонная история пробега, заправки, сервисные записи с работами, расходы,
+ * запчасти и уведомления о ТО.
+ * <p>
+ * Выключен по умолчанию (data-generator.enabled). Запускается из командной строки
+ * (--generate-fleet=N, после загрузки приложение завершается) или через /admin/generator/fleet.
+ * При одинаковом зерне данные совпадают с точностью до идентификаторов.
+ * <p>
+ * Строки пишутся пакетными INSERT (reWriteBatchedInserts) порциями по автомобилям, каждая порция
+ * таблицы - в отдельной транзакции. Идентификаторы резервируются блоками из последовательностей таблиц,
+ * поэтому запускать генератор стоит на тестовой базе без параллельной записи. Если роль позволяет,
+ * триггеры (журнал изменений, версии таблиц, внешние ключи) на время загрузки отключаются
+ * через session_replication_role, а кэши после загрузки сбрасываются целиком. Сгенерированные строки
+ * в этом случае не попадают в журнал изменений, поэтому после загрузки журнал сбрасывается
+ * ({@link SyncService#forceReset()}) и клиенты синхронизации выполняют полную перезагрузку.
+ */
+@Service
+@RequiredArgsConstructor
+public class FleetDataGenerator implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetDataGenerator.class);
+
+    public static final String CLI_OPTION = "generate-fleet";
+    public static final String CLI_SEED_OPTION = "generate-fleet-seed";
+
+    private static final String PLATE_LETTERS = "АВЕКМНОРСТУХ";
+    private static final String[] BRANDS = {"Lada", "Lada", "Kia", "Hyundai", "Toyota", "Volkswagen", "Skoda", "Renault", "GAZ", "KAMAZ"};
+    private static final String[] MODELS = {"Vesta", "Largus", "Rio", "Solaris", "Camry", "Polo", "Octavia", "Logan", "Gazelle Next", "5490"};
+    private static final FuelEntry.FuelType[] FUEL_TYPES = {
+            FuelEntry.FuelType.GASOLINE, FuelEntry.FuelType.PROPANE, FuelEntry.FuelType.GASOLINE, FuelEntry.FuelType.GASOLINE,
+            FuelEntry.FuelType.GASOLINE, FuelEntry.FuelType.GASOLINE, FuelEntry.FuelType.GASOLINE, FuelEntry.FuelType.METHANE,
+            FuelEntry.FuelType.DIESEL, FuelEntry.FuelType.DIESEL};
+    private static final double[] TANK_VOLUMES = {55, 60, 50, 50, 60, 55, 50, 50, 64, 400};
+    private static final double[] CONSUMPTIONS = {7.5, 9.0, 7.0, 7.2, 8.5, 6.8, 7.0, 7.5, 12.0, 30.0};
+    private static final String[] FIRST_NAMES = {"Иван", "Алексей", "Сергей", "Дмитрий", "Андрей", "Михаил", "Ольга", "Елена", "Наталья", "Павел"};
+    private static final String[] LAST_NAMES = {"Иванов", "Смирнов", "Кузнецов", "Попов", "Васильев", "Петров", "Соколов", "Михайлов", "Новиков", "Фёдоров"};
+    private static final String[] GAS_STATIONS = {"Лукойл", "Роснефть", "Газпромнефть", "Татнефть", "Shell", "Нефтьмагистраль"};
+    private static final String[] EXPENSE_TYPES = {"Мойка", "Парковка", "Платная дорога", "Штраф", "Страховка", "Шиномонтаж"};
+    private static final String[] TASKS = {"Замена масла", "Замена масляного фильтра", "Замена воздушного фильтра",
+            "Замена салонного фильтра", "Замена тормозных колодок", "Диагностика подвески", "Замена свечей зажигания",
+            "Замена ремня ГРМ", "Развал-схождение", "Замена антифриза"};
+    private static final String[] PART_NAMES = {"Масло моторное 5W-30", "Фильтр масляный", "Фильтр воздушный",
+            "Колодки тормозные", "Свеча зажигания", "Ремень ГРМ", "Антифриз G12", "Лампа H7"};
+    private static final String[] MANUFACTURERS = {"Bosch", "Mann", "Mobil", "Castrol", "NGK", "Gates", "Лукойл", "Brembo"};
+    private static final int[] SERVICE_INTERVALS = {10_000, 15_000, 20_000};
+    private static final int[] NOTIFICATION_THRESHOLDS = {500, 1_000};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final List<CacheInvalidationHandler> cacheInvalidationHandlers;
+    private final ApplicationContext applicationContext;
+    private final SyncService syncService;
+    private final Validator validator;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fleet-data-generator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Map<String, Object> lastRun = Map.of("state", "IDLE");
+    private final Map<String, Long> rowsInserted = new LinkedHashMap<>();
+
+    @Value("${data-generator.enabled:false}")
+    private boolean enabled;
+
+    @Value("${data-generator.seed:42}")
+    private long defaultSeed;
+
+    @Value("${data-generator.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${data-generator.cars-per-chunk:100}")
+    private int carsPerChunk;
+
+    @Value("${data-generator.disable-triggers:true}")
+    private boolean disableTriggers;
+
+    @Value("${data-generator.history-days:730}")
+    private int historyDays;
+
+    // Средний дневной пробег автомобиля ~ N(mean, stddev), по дням - ещё ±40% вокруг среднего автомобиля
+    @Value("${data-generator.daily-km-mean:60}")
+    private double dailyKmMean;
+
+    @Value("${data-generator.daily-km-stddev:30}")
+    private double dailyKmStddev;
+
+    // Средние количества на автомобиль; фактическое число равномерно в [mean/2, 3*mean/2]
+    @Value("${data-generator.fuel-entries-per-car:100}")
+    private int fuelEntriesPerCar;
+
+    @Value("${data-generator.service-records-per-car:6}")
+    private int serviceRecordsPerCar;
+
+    @Value("${data-generator.tasks-per-service-record:3}")
+    private int tasksPerServiceRecord;
+
+    @Value("${data-generator.expenses-per-car:15}")
+    private int expensesPerCar;
+
+    @Value("${data-generator.spare-parts:2000}")
+    private int spareParts;
+
+    @Value("${data-generator.driver-ratio:0.8}")
+    private double driverRatio;
+
+    @Value("${data-generator.fuel-price-mean:55}")
+    private double fuelPriceMean;
+
+    @Value("${data-generator.fuel-price-stddev:6}")
+    private double fuelPriceStddev;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Запуск из командной строки: --data-generator.enabled=true --generate-fleet=10000 [--generate-fleet-seed=7]
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(CLI_OPTION)) {
+            return;
+        }
+        if (!enabled) {
+            logger.warn("Option --{} ignored: data-generator.enabled is false", CLI_OPTION);
+            return;
+        }
+
+        // Параметры проверяются теми же ограничениями, что и запрос к /admin/generator/fleet
+        FleetGenerationRequest request = new FleetGenerationRequest();
+        String error = null;
+        try {
+            request.setCars(Integer.parseInt(args.getOptionValues(CLI_OPTION).get(0).trim()));
+            if (args.containsOption(CLI_SEED_OPTION)) {
+                request.setSeed(Long.parseLong(args.getOptionValues(CLI_SEED_OPTION).get(0).trim()));
+            }
+            Set<ConstraintViolation<FleetGenerationRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                error = violations.iterator().next().getMessage();
+            }
+        } catch (NumberFormatException e) {
+            error = "expected an integer: " + e.getMessage();
+        }
+
+        int exitCode = 0;
+        if (error != null) {
+            logger.error("Invalid --{} arguments: {}", CLI_OPTION, error);
+            exitCode = 2;
+        } else if (!running.compareAndSet(false, true)) {
+            exitCode = 1;
+        } else {
+            try {
+                generate(request);
+            } catch (Exception e) {
+                exitCode = 1;
+            } finally {
+                running.set(false);
+            }
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+
+    /**
+     * Запускает генерацию в фоне
+     *
+     * @return false, если генерация уже выполняется
+     */
+    public boolean startAsync(FleetGenerationRequest request) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        lastRun = Map.of("state", "RUNNING", "startedAt", LocalDateTime.now(), "cars", request.getCars());
+        executor.execute(() -> {
+            try {
+                generate(request);
+            } catch (Exception e) {
+                // Ошибка уже отражена в статусе
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Состояние последнего запуска и количество вставленных строк по таблицам
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>(lastRun);
+        status.put("enabled", enabled);
+        status.put("running", running.get());
+        synchronized (rowsInserted) {
+            status.put("rows", new LinkedHashMap<>(rowsInserted));
+        }
+        return status;
+    }
+
+    private void generate(FleetGenerationRequest request) {
+        Params params = paramsFor(request);
+        LocalDateTime startedAt = LocalDateTime.now();
+        lastRun = Map.of("state", "RUNNING", "startedAt", startedAt, "parameters", params);
+        synchronized (rowsInserted) {
+            rowsInserted.clear();
+        }
+        logger.info("Generating synthetic fleet: {}", params);
+
+        try {
+            boolean triggersOff = disableTriggers && canDisableTriggers();
+            Random random = new Random(params.seed());
+            LocalDateTime now = startedAt.truncatedTo(ChronoUnit.SECONDS);
+            IdAllocator ids = new IdAllocator();
+
+            for (int offset = 0; offset < params.cars(); offset += carsPerChunk) {
+                EnumMap<Target, List<Object[]>> rows = new EnumMap<>(Target.class);
+                int chunkSize = Math.min(carsPerChunk, params.cars() - offset);
+                for (int i = 0; i < chunkSize; i++) {
+                    generateCar(params, random, now, ids, rows);
+                }
+                write(rows, triggersOff);
+                if ((offset / carsPerChunk) % 10 == 9) {
+                    logger.info("Generated {} of {} cars", offset + chunkSize, params.cars());
+                }
+            }
+
+            EnumMap<Target, List<Object[]>> parts = new EnumMap<>(Target.class);
+            for (int i = 0; i < params.spareParts(); i++) {
+                generateSparePart(random, now, ids, parts);
+            }
+            write(parts, triggersOff);
+
+            jdbcTemplate.execute("ANALYZE driver, car, reminder_settings, fuel_entries, service_record, service_task, " +
+                    "additional_expense, notifications, spare_part");
+            invalidateCaches();
+            if (triggersOff) {
+                // Строки прошли мимо журнала изменений: клиенты синхронизации их иначе не увидят
+                syncService.forceReset();
+            }
+
+            Duration duration = Duration.between(startedAt, LocalDateTime.now());
+            lastRun = Map.of("state", "COMPLETED", "startedAt", startedAt, "finishedAt", LocalDateTime.now(),
+                    "durationMs", duration.toMillis(), "parameters", params, "triggersDisabled", triggersOff);
+            logger.info("Synthetic fleet generated in {} s: {}", duration.toSeconds(), getStatus().get("rows"));
+        } catch (Exception e) {
+            lastRun = Map.of("state", "FAILED", "startedAt", startedAt, "finishedAt", LocalDateTime.now(),
+                    "parameters", params, "error", String.valueOf(e.getMessage()));
+            logger.error("Synthetic fleet generation failed: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void generateCar(Params params, Random random, LocalDateTime now, IdAllocator ids,
+                             EnumMap<Target, List<Object[]>> rows) {
+        long carId = ids.next(Target.CAR);
+        int model = random.nextInt(BRANDS.length);
+        int year = now.getYear() - random.nextInt(15);
+        LocalDateTime start = now.minusDays(historyDays);
+
+        // Пробег по дням: не убывает, поэтому показания всех записей согласованы по времени
+        double carDailyKm = Math.max(5, dailyKmMean + random.nextGaussian() * dailyKmStddev);
+        long[] odometerByDay = new long[historyDays + 1];
+        odometerByDay[0] = (long) (Math.max(0, now.getYear() - year - 2) * 365 * carDailyKm * (0.5 + random.nextDouble() * 0.5));
+        for (int day = 1; day <= historyDays; day++) {
+            double km = carDailyKm * (1 + random.nextGaussian() * 0.4);
+            odometerByDay[day] = odometerByDay[day - 1] + Math.max(0, Math.round(km));
+        }
+
+        // Заправки
+        FuelEntry.FuelType fuelType = FUEL_TYPES[model];
+        double tankVolume = TANK_VOLUMES[model];
+        for (LocalDateTime dateTime : sortedTimes(random, start, count(random, params.fuelEntriesPerCar()))) {
+            double volume = round2(tankVolume * (0.4 + random.nextDouble() * 0.55));
+            double price = round2(Math.max(10, priceFor(fuelType) + random.nextGaussian() * fuelPriceStddev));
+            add(rows, Target.FUEL_ENTRY, ids.next(Target.FUEL_ENTRY), carId, counterAt(odometerByDay, start, dateTime),
+                    GAS_STATIONS[random.nextInt(GAS_STATIONS.length)], fuelType.name(), volume, price,
+                    round2(volume * price), dateTime);
+        }
+
+        // Сервисные записи с работами; последняя запись может быть ещё в работе
+        Long lastCompletedCounter = null;
+        LocalDateTime lastCompletedAt = null;
+        int completedCount = 0;
+        for (LocalDateTime startDateTime : sortedTimes(random, start, count(random, params.serviceRecordsPerCar()))) {
+            long recordId = ids.next(Target.SERVICE_RECORD);
+            long counter = counterAt(odometerByDay, start, startDateTime);
+            LocalDateTime plannedEnd = startDateTime.plusDays(1 + random.nextInt(3));
+            ServiceRecord.ServiceStatus status = plannedEnd.isAfter(now) ? ServiceRecord.ServiceStatus.IN_PROGRESS
+                    : random.nextDouble() < 0.9 ? ServiceRecord.ServiceStatus.COMPLETED : ServiceRecord.ServiceStatus.CANCELLED;
+            LocalDateTime completedAt = status == ServiceRecord.ServiceStatus.COMPLETED ? plannedEnd : null;
+            if (completedAt != null) {
+                lastCompletedCounter = counter;
+                lastCompletedAt = completedAt;
+                completedCount++;
+            }
+
+            int taskCount = Math.max(1, count(random, tasksPerServiceRecord));
+            StringBuilder details = new StringBuilder("Плановое ТО: ");
+            for (int t = 0; t < taskCount; t++) {
+                String task = TASKS[random.nextInt(TASKS.length)];
+                details.append(t > 0 ? ", " : "").append(task.toLowerCase(Locale.ROOT));
+                add(rows, Target.SERVICE_TASK, ids.next(Target.SERVICE_TASK), recordId, task,
+                        random.nextDouble() < 0.3 ? "Выполнено по регламенту" : null);
+            }
+            add(rows, Target.SERVICE_RECORD, recordId, carId, counter, startDateTime, plannedEnd, details.toString(),
+                    round2(taskCount * (1_500 + random.nextDouble() * 6_000)), status.name(), completedAt, startDateTime);
+        }
+
+        // Дополнительные расходы
+        for (LocalDateTime dateTime : sortedTimes(random, start, count(random, params.expensesPerCar()))) {
+            add(rows, Target.ADDITIONAL_EXPENSE, ids.next(Target.ADDITIONAL_EXPENSE), carId,
+                    EXPENSE_TYPES[random.nextInt(EXPENSE_TYPES.length)], round2(100 + random.nextDouble() * 4_900),
+                    dateTime, random.nextDouble() < 0.2 ? "Синтетический расход" : null);
+        }
+
+        // Водитель: сначала без автомобиля, связь проставляется после вставки автомобиля
+        Long driverId = null;
+        if (random.nextDouble() < driverRatio) {
+            driverId = ids.next(Target.DRIVER);
+            add(rows, Target.DRIVER, driverId,
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    String.format("+7 9%02d %03d-%02d-%02d", random.nextInt(100), random.nextInt(1000),
+                            random.nextInt(100), random.nextInt(100)));
+            add(rows, Target.DRIVER_LINK, carId, driverId);
+        }
+
+        long odometer = odometerByDay[historyDays];
+        add(rows, Target.CAR, carId, String.format("SYN%014d", carId), licensePlate(carId), BRANDS[model], MODELS[model],
+                year, (int) Math.min(odometer, Integer.MAX_VALUE), CONSUMPTIONS[model],
+                lastCompletedAt != null ? lastCompletedAt.toLocalDate() : null,
+                CarStatus.values()[random.nextInt(CarStatus.values().length)].name(), driverId,
+                CounterType.ODOMETER.name(), Boolean.FALSE, tankVolume, fuelType.name(), null);
+
+        // Настройки напоминаний и уведомление по тем же правилам, что и NotificationService
+        int interval = SERVICE_INTERVALS[random.nextInt(SERVICE_INTERVALS.length)];
+        int threshold = NOTIFICATION_THRESHOLDS[random.nextInt(NOTIFICATION_THRESHOLDS.length)];
+        boolean notificationsEnabled = random.nextDouble() < 0.95;
+        add(rows, Target.REMINDER_SETTINGS, ids.next(Target.REMINDER_SETTINGS), carId, interval, threshold, notificationsEnabled);
+
+        long kmToNextService = lastCompletedCounter != null
+                ? lastCompletedCounter + interval - odometer
+                : interval - odometer;
+        if (notificationsEnabled && kmToNextService <= threshold) {
+            int km = (int) Math.max(kmToNextService, Integer.MIN_VALUE);
+            String carInfo = BRANDS[model] + " " + MODELS[model] + " " + licensePlate(carId);
+            String message = km < 0
+                    ? String.format("ТО для %s просрочено на %d км!", carInfo, Math.abs((long) km))
+                    : String.format("До следующего ТО для %s осталось %d км", carInfo, km);
+            add(rows, Target.NOTIFICATION, ids.next(Target.NOTIFICATION), carId, message, km, completedCount,
+                    now.minusHours(random.nextInt(72)), random.nextDouble() < 0.3, true,
+                    (km < 0 ? Notification.NotificationType.OVERDUE : Notification.NotificationType.WARNING).name());
+        }
+    }
+
+    private void generateSparePart(Random random, LocalDateTime now, IdAllocator ids, EnumMap<Target, List<Object[]>> rows) {
+        double pricePerUnit = round2(100 + random.nextDouble() * 9_900);
+        double quantity = 1 + random.nextInt(8);
+        add(rows, Target.SPARE_PART, ids.next(Target.SPARE_PART), PART_NAMES[random.nextInt(PART_NAMES.length)],
+                SparePart.Category.values()[random.nextInt(SparePart.Category.values().length)].name(),
+                MANUFACTURERS[random.nextInt(MANUFACTURERS.length)], pricePerUnit, quantity, SparePart.Unit.PIECES.name(),
+                round2(pricePerUnit * quantity), null, now.minusMinutes(random.nextInt(historyDays * 24 * 60)));
+    }
+
+    // Порции каждой таблицы пишутся в порядке внешних ключей, каждая - в своей транзакции
+    private void write(EnumMap<Target, List<Object[]>> rows, boolean triggersOff) {
+        TransactionTemplate transactionTemplate = newTransactionTemplate();
+        for (Map.Entry<Target, List<Object[]>> entry : rows.entrySet()) {
+            List<Object[]> tableRows = entry.getValue();
+            for (int from = 0; from < tableRows.size(); from += batchSize) {
+                List<Object[]> batch = tableRows.subList(from, Math.min(from + batchSize, tableRows.size()));
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (triggersOff) {
+                        jdbcTemplate.execute("SET LOCAL session_replication_role = replica");
+                    }
+                    jdbcTemplate.batchUpdate(entry.getKey().sql, batch);
+                });
+            }
+            if (entry.getKey() != Target.DRIVER_LINK) {
+                synchronized (rowsInserted) {
+                    rowsInserted.merge(entry.getKey().table, (long) tableRows.size(), Long::sum);
+                }
+            }
+        }
+    }
+
+    // Отключение триггеров требует прав суперпользователя или владельца репликации
+    private boolean canDisableTriggers() {
+        try {
+            newTransactionTemplate().executeWithoutResult(status ->
+                    jdbcTemplate.execute("SET LOCAL session_replication_role = replica"));
+            return true;
+        } catch (Exception e) {
+            logger.warn("Cannot disable triggers for bulk load, inserting with triggers enabled: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // Строки вставлены в обход Hibernate и, возможно, без триггеров: сбрасываем кэши здесь и на других узлах
+    private void invalidateCaches() {
+        for (CacheInvalidationHandler handler : cacheInvalidationHandlers) {
+            handler.evictAll();
+            for (String region : handler.regions()) {
+                cacheInvalidationBus.publish(region, "*");
+            }
+        }
+    }
+
+    private long reserveIds(String table, int count) {
+        String sequence = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, 'id')", String.class, table);
+        Long first = jdbcTemplate.queryForObject(
+                "SELECT setval(CAST(? AS regclass), nextval(CAST(? AS regclass)) + ? - 1) - ? + 1",
+                Long.class, sequence, sequence, count, count);
+        return first != null ? first : 1L;
+    }
+
+    private Params paramsFor(FleetGenerationRequest request) {
+        return new Params(
+                request.getCars(),
+                request.getSeed() != null ? request.getSeed() : defaultSeed,
+                request.getFuelEntriesPerCar() != null ? request.getFuelEntriesPerCar() : fuelEntriesPerCar,
+                request.getServiceRecordsPerCar() != null ? request.getServiceRecordsPerCar() : serviceRecordsPerCar,
+                request.getExpensesPerCar() != null ? request.getExpensesPerCar() : expensesPerCar,
+                request.getSpareParts() != null ? request.getSpareParts() : spareParts);
+    }
+
+    private double priceFor(FuelEntry.FuelType fuelType) {
+        return switch (fuelType) {
+            case DIESEL -> fuelPriceMean * 1.15;
+            case PROPANE, METHANE -> fuelPriceMean * 0.5;
+            default -> fuelPriceMean;
+        };
+    }
+
+    private static int count(Random random, int mean) {
+        return mean <= 0 ? 0 : mean / 2 + random.nextInt(mean + 1);
+    }
+
+    private List<LocalDateTime> sortedTimes(Random random, LocalDateTime start, int count) {
+        long spanSeconds = historyDays * 86_400L;
+        long[] offsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = random.nextLong(spanSeconds);
+        }
+        Arrays.sort(offsets);
+        List<LocalDateTime> times = new ArrayList<>(count);
+        for (long offset : offsets) {
+            times.add(start.plusSeconds(offset));
+        }
+        return times;
+    }
+
+    private static long counterAt(long[] odometerByDay, LocalDateTime start, LocalDateTime dateTime) {
+        int day = (int) ChronoUnit.DAYS.between(start, dateTime);
+        return odometerByDay[Math.min(Math.max(day, 0), odometerByDay.length - 1)];
+    }
+
+    // Уникален для id до 155 млн: 3 цифры, 3 буквы и код региона
+    private static String licensePlate(long id) {
+        int base = PLATE_LETTERS.length();
+        long letters = id / 1000;
+        return "" + PLATE_LETTERS.charAt((int) (letters % base))
+                + String.format("%03d", id % 1000)
+                + PLATE_LETTERS.charAt((int) (letters / base % base))
+                + PLATE_LETTERS.charAt((int) (letters / base / base % base))
+                + (10 + letters / base / base / base % 90);
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static void add(EnumMap<Target, List<Object[]>> rows, Target target, Object... values) {
+        rows.computeIfAbsent(target, t -> new ArrayList<>()).add(values);
+    }
+
+    // Имя транзакции направляет загрузку в пул аналитики и пакетных задач
+    private TransactionTemplate newTransactionTemplate() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setName(FleetDataGenerator.class.getName() + ".generate");
+        return transactionTemplate;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Выдаёт идентификаторы из зарезервированных блоков последовательности каждой таблицы
+     */
+    private class IdAllocator {
+        private final EnumMap<Target, long[]> blocks = new EnumMap<>(Target.class);
+
+        long next(Target target) {
+            long[] block = blocks.computeIfAbsent(target, t -> new long[]{0, 0});
+            if (block[0] >= block[1]) {
+                block[0] = reserveIds(target.table, batchSize);
+                block[1] = block[0] + batchSize;
+            }
+            return block[0]++;
+        }
+    }
+
+    // Порядок констант - порядок записи: родительские таблицы раньше дочерних
+    private enum Target {
+        DRIVER("driver", "INSERT INTO driver (id, full_name, phone_number) VALUES (?, ?, ?)"),
+        CAR("car", "INSERT INTO car (id, vin, license_plate, brand, model, year, odometr, fuel_consumption, " +
+                "last_maintenance_date, status, driver_id, counter_type, secondary_counter_enabled, fuel_tank_volume, " +
+                "fuel_type, description) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        DRIVER_LINK("driver", "UPDATE driver SET car_id = ? WHERE id = ?"),
+        REMINDER_SETTINGS("reminder_settings", "INSERT INTO reminder_settings (id, car_id, service_interval_km, " +
+                "notification_threshold_km, notifications_enabled) VALUES (?, ?, ?, ?, ?)"),
+        FUEL_ENTRY("fuel_entries", "INSERT INTO fuel_entries (id, car_id, odometer_reading, gas_station, fuel_type, " +
+                "volume, price_per_unit, total_cost, date_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        SERVICE_RECORD("service_record", "INSERT INTO service_record (id, car_id, counter_reading, start_date_time, " +
+                "planned_end_date_time, details, total_cost, status, completed_at, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        SERVICE_TASK("service_task", "INSERT INTO service_task (id, service_record_id, task_name, task_description) " +
+                "VALUES (?, ?, ?, ?)"),
+        ADDITIONAL_EXPENSE("additional_expense", "INSERT INTO additional_expense (id, car_id, type, price, date_time, " +
+                "description) VALUES (?, ?, ?, ?, ?, ?)"),
+        NOTIFICATION("notifications", "INSERT INTO notifications (id, car_id, message, km_to_next_service, service_count, " +
+                "created_at, is_read, is_active, type) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        SPARE_PART("spare_part", "INSERT INTO spare_part (id, name, category, manufacturer, price_per_unit, quantity, " +
+                "unit, total_sum, description, date_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+
+        private final String table;
+        private final String sql;
+
+        Target(String table, String sql) {
+            this.table = table;
+            this.sql = sql;
+        }
+    }
+
+    public record Params(int cars, long seed, int fuelEntriesPerCar, int serviceRecordsPerCar,
+                         int expensesPerCar, int spareParts) {
+    }
+}
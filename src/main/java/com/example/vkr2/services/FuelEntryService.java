@@ -10,11 +10,16 @@ import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,16 +27,18 @@ import java.util.stream.Collectors;
 public class FuelEntryService {
 
     private static final Logger logger = LoggerFactory.getLogger(FuelEntryService.class);
+    private static final int MAX_PAGE_SIZE = 500;
 
     private final FuelEntryRepository fuelEntryRepository;
     private final CarRepository carRepository;
     private final CounterValidationService counterValidationService;
+    private final OutboxService outboxService;
 
     @Transactional
     public FuelEntryResponse addFuelEntry(FuelEntryRequest request) {
         logger.info("Adding fuel entry for car ID: {}", request.getCarId());
 
-        Car car = carRepository.findById(request.getCarId())
+        Car car = carRepository.findActiveById(request.getCarId())
                 .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + request.getCarId() + " не найден"));
 
         // ВАЛИДАЦИЯ ПОКАЗАНИЙ СЧЕТЧИКА
@@ -65,6 +72,8 @@ public class FuelEntryService {
             carRepository.save(car);
             logger.info("Updated car odometer to {} km for car ID: {}",
                     request.getOdometerReading(), request.getCarId());
+            outboxService.publish(OutboxService.CAR_ODOMETER_CHANGED, OutboxService.AGGREGATE_CAR, car.getId(),
+                    Map.of("odometer", car.getOdometr()));
         }
 
         logger.info("Fuel entry added with ID: {} for car ID: {}, counter: {}",
@@ -80,7 +89,7 @@ public class FuelEntryService {
         FuelEntry existingEntry = fuelEntryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Запись о заправке с ID " + id + " не найдена"));
 
-        Car car = carRepository.findById(request.getCarId())
+        Car car = carRepository.findActiveById(request.getCarId())
                 .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + request.getCarId() + " не найден"));
 
         // ВАЛИДАЦИЯ ПОКАЗАНИЙ СЧЕТЧИКА (только если они изменились)
@@ -117,6 +126,8 @@ public class FuelEntryService {
             carRepository.save(car);
             logger.info("Updated car odometer to {} km for car ID: {}",
                     request.getOdometerReading(), request.getCarId());
+            outboxService.publish(OutboxService.CAR_ODOMETER_CHANGED, OutboxService.AGGREGATE_CAR, car.getId(),
+                    Map.of("odometer", car.getOdometr()));
         }
 
         logger.info("Fuel entry updated with ID: {}, counter: {}",
@@ -129,7 +140,7 @@ public class FuelEntryService {
     public List<FuelEntryResponse> getAllFuelEntries() {
         logger.info("Fetching all fuel entries");
         try {
-            return fuelEntryRepository.findAll().stream()
+            return fuelEntryRepository.findAllWithCar().stream()
                     .map(this::mapToResponse)
                     .collect(Collectors.toList());
         } catch (Exception e) {
@@ -155,6 +166,44 @@ public class FuelEntryService {
         }
     }
 
+    @Transactional(readOnly = true)
+    public Page<FuelEntryResponse> getFuelEntriesByCarId(Long carId, int page, int size) {
+        logger.info("Fetching fuel entries for car ID: {}, page: {}, size: {}", carId, page, size);
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                Sort.by(Sort.Direction.DESC, "dateTime"));
+        return fuelEntryRepository.findByCarId(carId, pageRequest).map(this::mapToResponse);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getFuelEntryStats(Long carId) {
+        logger.info("Calculating fuel entry stats for car ID: {}", carId);
+
+        Object[] row = fuelEntryRepository.getFuelStatsByCarId(carId).get(0);
+        long totalEntries = ((Number) row[0]).longValue();
+        double totalCost = ((Number) row[1]).doubleValue();
+        double totalVolume = ((Number) row[2]).doubleValue();
+        Long minOdometer = row[3] != null ? ((Number) row[3]).longValue() : null;
+        Long maxOdometer = row[4] != null ? ((Number) row[4]).longValue() : null;
+        double firstVolume = row[5] != null ? ((Number) row[5]).doubleValue() : 0.0;
+
+        // Расход на 100 км: топливо первой заправки израсходовано до начала учтённого пробега
+        double consumptionPer100Km = 0.0;
+        if (minOdometer != null && maxOdometer > minOdometer) {
+            consumptionPer100Km = (totalVolume - firstVolume) / (maxOdometer - minOdometer) * 100;
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("carId", carId);
+        stats.put("totalEntries", totalEntries);
+        stats.put("totalCost", totalCost);
+        stats.put("totalVolume", totalVolume);
+        stats.put("averageCostPerLiter", totalVolume > 0 ? totalCost / totalVolume : 0.0);
+        stats.put("minOdometer", minOdometer != null ? minOdometer : 0L);
+        stats.put("maxOdometer", maxOdometer != null ? maxOdometer : 0L);
+        stats.put("consumptionPer100Km", consumptionPer100Km);
+        return stats;
+    }
+
     @Transactional(readOnly = true)
     public FuelEntryResponse getFuelEntryById(Long id) {
         logger.info("Fetching fuel entry with ID: {}", id);
@@ -0,0 +1,61 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.JWT.models.User;
+import com.example.vkr2.entity.Car;
+import com.example.vkr2.entity.Driver;
+import com.example.vkr2.entity.ReminderSettings;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Сброс кэша второго уровня Hibernate по изменениям на других узлах.
+ * <p>
+ * Кэш запросов сбрасывается целиком: отметки времени изменения таблиц локальны
+ * и об изменениях на другом узле не знают.
+ */
+@Component
+@RequiredArgsConstructor
+public class HibernateCacheInvalidationHandler implements CacheInvalidationHandler {
+
+    private static final Map<String, Class<?>> ENTITIES_BY_REGION = Map.of(
+            "car", Car.class,
+            "driver", Driver.class,
+            "reminder-settings", ReminderSettings.class,
+            "user", User.class
+    );
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Set<String> regions() {
+        return ENTITIES_BY_REGION.keySet();
+    }
+
+    @Override
+    public void evict(String region, String id) {
+        Cache cache = cache();
+        Class<?> entityClass = ENTITIES_BY_REGION.get(region);
+        // Пользователь публикуется по имени, а в кэше лежит по id - регион небольшой, сбрасываем целиком
+        if (entityClass == User.class) {
+            cache.evictEntityData(entityClass);
+        } else {
+            cache.evictEntityData(entityClass, Long.valueOf(id));
+        }
+        cache.evictDefaultQueryRegion();
+    }
+
+    @Override
+    public void evictAll() {
+        cache().evictAllRegions();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.vkr2.services;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+/**
+ * Отмечает зафиксированные транзакции записи, выполненные в потоке идемпотентного запроса.
+ * <p>
+ * Если запрос завершился ошибкой уже после фиксации записи, ключ нельзя освобождать:
+ * повтор выполнил бы запись второй раз. Слушатель подключается к менеджеру транзакций
+ * автоконфигурацией Spring Boot, поэтому не зависит от других бинов.
+ */
+@Component
+public class IdempotencyCommitTracker implements TransactionExecutionListener {
+
+    private final ThreadLocal<boolean[]> writeCommitted = new ThreadLocal<>();
+
+    /**
+     * Начало отслеживания в текущем потоке
+     */
+    public void begin() {
+        writeCommitted.set(new boolean[1]);
+    }
+
+    /**
+     * Окончание отслеживания
+     *
+     * @return true, если с начала отслеживания была зафиксирована транзакция записи
+     */
+    public boolean end() {
+        boolean[] committed = writeCommitted.get();
+        writeCommitted.remove();
+        return committed != null && committed[0];
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, @Nullable Throwable commitFailure) {
+        boolean[] committed = writeCommitted.get();
+        if (committed != null && commitFailure == null && !transaction.isReadOnly()) {
+            committed[0] = true;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.entity.IdempotencyRecord;
+import com.example.vkr2.repository.IdempotencyRecordRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Хранилище ключей идемпотентности.
+ * <p>
+ * Первый запрос с ключом захватывает его вставкой ON CONFLICT DO NOTHING и выполняется, ответ
+ * сохраняется. Повтор с тем же ключом получает сохранённый ответ без повторного выполнения.
+ * Одновременный повтор ждёт завершения первого: на том же узле - по сигналу, на другом - опрашивая базу.
+ * Аренда ключа продлевается, пока запрос выполняется на этом узле, поэтому долгий запрос не перехватывается.
+ * Продление идёт в собственном потоке: общий планировщик могут надолго занять другие задачи.
+ * Если выполнение прервалось (узел остановился), ключ перехватывается после окончания аренды.
+ * Каждый захват получает свой идентификатор владельца, и продление, сохранение ответа и освобождение
+ * выполняются только по нему: исполнитель, у которого ключ перехватили, ничего не перезапишет.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.lock-timeout-ms:30000}")
+    private long lockTimeoutMs;
+
+    @Value("${idempotency.lease-renew-interval-ms:10000}")
+    private long leaseRenewIntervalMs;
+
+    @Value("${idempotency.wait-poll-ms:100}")
+    private long waitPollMs;
+
+    @Value("${idempotency.prune-batch-size:5000}")
+    private int pruneBatchSize;
+
+    // Запросы, выполняемые на этом узле: повторы ждут их завершения без опроса базы
+    private final Map<String, CompletableFuture<Void>> localInFlight = new ConcurrentHashMap<>();
+    // Аренды этих запросов для продления
+    private final Map<String, Lease> localLeases = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService leaseRenewer;
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong leaseRenewals = new AtomicLong();
+    private final AtomicLong leasesLost = new AtomicLong();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        leaseRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        leaseRenewer.scheduleWithFixedDelay(this::renewLeases,
+                leaseRenewIntervalMs, leaseRenewIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        leaseRenewer.shutdown();
+        leaseRenewer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Попытка захватить ключ; если он занят, ожидание завершения выполняющегося запроса
+     *
+     * @param keyHash     хэш ключа
+     * @param requestHash хэш тела запроса
+     * @param waitMs      максимальное время ожидания одновременного запроса
+     * @return результат: выполнять запрос, вернуть сохранённый ответ или отказать
+     */
+    public Outcome acquire(byte[] keyHash, byte[] requestHash, long waitMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        boolean waited = false;
+        while (true) {
+            Outcome outcome = tryAcquire(keyHash, requestHash);
+            if (outcome.type() != OutcomeType.IN_PROGRESS) {
+                if (waited && outcome.type() == OutcomeType.REPLAY) {
+                    collapsed.incrementAndGet();
+                }
+                return outcome;
+            }
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                conflicts.incrementAndGet();
+                return outcome;
+            }
+            waited = true;
+            if (!awaitCompletion(keyHash, Math.min(TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 1, waitPollMs))) {
+                conflicts.incrementAndGet();
+                return outcome;
+            }
+        }
+    }
+
+    /**
+     * Сохранение ответа выполненного запроса
+     *
+     * @param owner владелец аренды из результата захвата
+     * @return false, если ответ не сохранён (ключ перехвачен или ошибка базы)
+     */
+    public boolean complete(byte[] keyHash, UUID owner, int status, String contentType, byte[] body,
+                            String location, String preferenceApplied) {
+        try {
+            Integer updated = transactionTemplate.execute(tx -> idempotencyRecordRepository.complete(
+                    keyHash, owner, status, contentType, body, location, preferenceApplied));
+            if (updated == null || updated == 0) {
+                leasesLost.incrementAndGet();
+                logger.warn("Idempotency key {} was taken over before the response was stored",
+                        HexFormat.of().formatHex(keyHash));
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error("Error storing idempotency response: {}", e.getMessage());
+            return false;
+        } finally {
+            signal(keyHash);
+        }
+    }
+
+    /**
+     * Освобождение ключа без сохранения ответа: повтор выполнит запрос заново
+     *
+     * @param owner владелец аренды из результата захвата
+     */
+    public void release(byte[] keyHash, UUID owner) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> idempotencyRecordRepository.release(keyHash, owner));
+        } catch (Exception e) {
+            logger.error("Error releasing idempotency key: {}", e.getMessage());
+        } finally {
+            signal(keyHash);
+        }
+    }
+
+    /**
+     * Продление аренды ключей, запросы которых ещё выполняются на этом узле.
+     * Интервал должен быть заметно меньше lock-timeout-ms
+     */
+    void renewLeases() {
+        if (localLeases.isEmpty()) {
+            return;
+        }
+        try {
+            LocalDateTime lockedUntil = LocalDateTime.now().plusNanos(lockTimeoutMs * 1_000_000);
+            Integer renewed = transactionTemplate.execute(tx -> {
+                int count = 0;
+                for (Lease lease : localLeases.values()) {
+                    if (idempotencyRecordRepository.renewLease(lease.keyHash(), lease.owner(), lockedUntil) > 0) {
+                        count++;
+                    } else {
+                        // Запрос завершился между чтением списка и продлением либо ключ перехвачен
+                        logger.debug("Idempotency lease {} was not renewed", lease.owner());
+                    }
+                }
+                return count;
+            });
+            if (renewed != null) {
+                leaseRenewals.addAndGet(renewed);
+            }
+        } catch (Exception e) {
+            logger.error("Error renewing idempotency key leases: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.prune-interval-ms:600000}")
+    public void pruneExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+        try {
+            while (true) {
+                Integer deleted = transactionTemplate.execute(tx ->
+                        idempotencyRecordRepository.deleteBatchExpired(now, pruneBatchSize));
+                if (deleted == null || deleted == 0) {
+                    break;
+                }
+                total += deleted;
+                if (deleted < pruneBatchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error pruning idempotency keys: {}", e.getMessage());
+        }
+        if (total > 0) {
+            logger.info("Pruned {} expired idempotency keys", total);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executed", executed.get());
+        stats.put("replayed", replayed.get());
+        stats.put("collapsed", collapsed.get());
+        stats.put("conflicts", conflicts.get());
+        stats.put("localInFlight", localInFlight.size());
+        stats.put("leaseRenewals", leaseRenewals.get());
+        stats.put("leasesLost", leasesLost.get());
+        return stats;
+    }
+
+    private Outcome tryAcquire(byte[] keyHash, byte[] requestHash) {
+        UUID owner = UUID.randomUUID();
+        Outcome outcome = transactionTemplate.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime lockedUntil = now.plusNanos(lockTimeoutMs * 1_000_000);
+            LocalDateTime expiresAt = now.plusHours(ttlHours);
+            if (idempotencyRecordRepository.tryInsert(keyHash, requestHash, owner, lockedUntil, now, expiresAt) > 0) {
+                return new Outcome(OutcomeType.ACQUIRED, null, owner);
+            }
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findByKeyHash(keyHash);
+            // Истёкший ключ, ещё не удалённый фоновой задачей, считается свободным
+            if (existing.isPresent() && !existing.get().getExpiresAt().isAfter(now)
+                    && idempotencyRecordRepository.deleteIfExpired(keyHash, now) > 0
+                    && idempotencyRecordRepository.tryInsert(keyHash, requestHash, owner, lockedUntil, now, expiresAt) > 0) {
+                return new Outcome(OutcomeType.ACQUIRED, null, owner);
+            }
+            if (existing.isEmpty()) {
+                // Ключ освобождён между вставкой и чтением: повторяем попытку
+                return new Outcome(OutcomeType.IN_PROGRESS, null, null);
+            }
+            IdempotencyRecord record = existing.get();
+            if (!Arrays.equals(record.getRequestHash(), requestHash)) {
+                return new Outcome(OutcomeType.MISMATCH, null, null);
+            }
+            if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return new Outcome(OutcomeType.REPLAY, record, null);
+            }
+            if (idempotencyRecordRepository.takeOverAbandoned(keyHash, owner, lockedUntil, now) > 0) {
+                logger.warn("Took over abandoned idempotency key {}", HexFormat.of().formatHex(keyHash));
+                return new Outcome(OutcomeType.ACQUIRED, null, owner);
+            }
+            return new Outcome(OutcomeType.IN_PROGRESS, null, null);
+        });
+
+        if (outcome.type() == OutcomeType.ACQUIRED) {
+            String key = HexFormat.of().formatHex(keyHash);
+            localLeases.put(key, new Lease(keyHash, owner));
+            localInFlight.put(key, new CompletableFuture<>());
+            executed.incrementAndGet();
+        } else if (outcome.type() == OutcomeType.REPLAY) {
+            replayed.incrementAndGet();
+        }
+        return outcome;
+    }
+
+    // false, если поток прерван
+    private boolean awaitCompletion(byte[] keyHash, long timeoutMs) {
+        CompletableFuture<Void> local = localInFlight.get(HexFormat.of().formatHex(keyHash));
+        try {
+            if (local != null) {
+                local.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } else {
+                Thread.sleep(timeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException ignored) {
+            // Состояние ключа перечитывается из базы
+        }
+        return true;
+    }
+
+    private void signal(byte[] keyHash) {
+        String key = HexFormat.of().formatHex(keyHash);
+        localLeases.remove(key);
+        CompletableFuture<Void> local = localInFlight.remove(key);
+        if (local != null) {
+            local.complete(null);
+        }
+    }
+
+    public enum OutcomeType {
+        // Ключ захвачен: запрос нужно выполнить
+        ACQUIRED,
+        // Запрос уже выполнен: вернуть сохранённый ответ
+        REPLAY,
+        // Ключ использован с другим телом запроса
+        MISMATCH,
+        // Запрос с этим ключом ещё выполняется
+        IN_PROGRESS
+    }
+
+    /**
+     * @param type   результат захвата ключа
+     * @param record сохранённый ответ для REPLAY
+     * @param owner  владелец аренды для ACQUIRED: передаётся в complete и release
+     */
+    public record Outcome(OutcomeType type, IdempotencyRecord record, UUID owner) {
+    }
+
+    private record Lease(byte[] keyHash, UUID owner) {
+    }
+}
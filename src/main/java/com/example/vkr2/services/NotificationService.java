@@ -3,12 +3,17 @@ package com.example.vkr2.services;
 import com.example.vkr2.DTO.NotificationDTO;
 import com.example.vkr2.entity.Car;
 import com.example.vkr2.entity.Notification;
+import com.example.vkr2.entity.OutboxEvent;
 import com.example.vkr2.entity.ReminderSettings;
 import com.example.vkr2.entity.ServiceRecord;
 import com.example.vkr2.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,22 +24,45 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class NotificationService {
+public class NotificationService implements OutboxEventHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
+    // Пространство рекомендательных блокировок уведомлений: вторым ключом идёт идентификатор автомобиля
+    private static final int NOTIFICATION_LOCK_NAMESPACE = 0x4E07;
+
     private final NotificationRepository notificationRepository;
     private final CarRepository carRepository;
     private final ReminderSettingsRepository reminderSettingsRepository;
     private final ServiceRecordRepository serviceRecordRepository;
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
+
+    // У автомобиля не больше одного активного уведомления; таблица к этому моменту создана Hibernate (ddl-auto)
+    @EventListener(ApplicationReadyEvent.class)
+    public void installActiveNotificationIndex() {
+        try {
+            // Дубликаты, созданные до появления индекса: остаётся самое новое уведомление
+            int deactivated = jdbcTemplate.update("UPDATE notifications n SET is_active = false WHERE n.is_active " +
+                    "AND EXISTS (SELECT 1 FROM notifications m WHERE m.car_id = n.car_id AND m.is_active AND m.id > n.id)");
+            if (deactivated > 0) {
+                logger.warn("Deactivated {} duplicate active notifications", deactivated);
+            }
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uq_notifications_active_car " +
+                    "ON notifications (car_id) WHERE is_active");
+        } catch (Exception e) {
+            logger.error("Error creating the active notification index: {}", e.getMessage());
+        }
+    }
 
     @Scheduled(fixedDelay = 1800000) // 30 минут
     @Transactional
     public int checkAndCreateNotifications() {
         logger.info("Начало проверки необходимости создания уведомлений о ТО");
 
-        List<Car> allCars = carRepository.findAll();
+        List<Car> allCars = carRepository.findAllActive();
         int createdCount = 0;
+        int errorCount = 0;
 
         for (Car car : allCars) {
             try {
@@ -42,15 +70,44 @@ public class NotificationService {
                     createdCount++;
                 }
             } catch (Exception e) {
+                errorCount++;
                 logger.error("Ошибка при проверке уведомлений для автомобиля ID {}: {}",
                         car.getId(), e.getMessage());
             }
         }
 
+        meterRegistry.counter("notifications.check.cars.scanned").increment(allCars.size());
+        meterRegistry.counter("notifications.check.created").increment(createdCount);
+        meterRegistry.counter("notifications.check.errors").increment(errorCount);
+
         logger.info("Проверка завершена. Создано уведомлений: {}", createdCount);
         return createdCount;
     }
 
+    @Override
+    public Set<String> eventTypes() {
+        return Set.of(OutboxService.CAR_ODOMETER_CHANGED, OutboxService.REMINDER_SETTINGS_CHANGED,
+                OutboxService.REMINDER_SETTINGS_DELETED, OutboxService.SERVICE_RECORD_COMPLETED);
+    }
+
+    // Реакция на изменения пробега, настроек и статуса ТО: выполняется ретранслятором outbox после фиксации
+    @Override
+    @Transactional
+    public void handle(OutboxEvent event) {
+        Long carId = event.getAggregateId();
+        switch (event.getEventType()) {
+            case OutboxService.REMINDER_SETTINGS_DELETED -> deactivateNotificationsForCar(carId);
+            case OutboxService.SERVICE_RECORD_COMPLETED -> {
+                // ТО выполнено: текущее уведомление снимается, следующее считается от нового ТО
+                deactivateNotificationsForCar(carId);
+                carRepository.findActiveById(carId)
+                        .ifPresent(this::checkCarMaintenanceNotification);
+            }
+            default -> carRepository.findActiveById(carId)
+                    .ifPresent(this::checkCarMaintenanceNotification);
+        }
+    }
+
     @Transactional
     public boolean checkCarMaintenanceNotification(Car car) {
         Optional<ReminderSettings> settingsOpt = reminderSettingsRepository.findByCarId(car.getId());
@@ -81,6 +138,13 @@ public class NotificationService {
             Optional<Notification> existingNotification = notificationRepository
                     .findActiveNotificationByCarId(car.getId());
 
+            if (existingNotification.isEmpty()) {
+                // Одновременная проверка того же автомобиля (другой поток ретранслятора, другой узел, плановая
+                // проверка) ждёт фиксации этой транзакции и затем увидит созданное уведомление
+                lockCarNotifications(car.getId());
+                existingNotification = notificationRepository.findActiveNotificationByCarId(car.getId());
+            }
+
             if (existingNotification.isEmpty()) {
                 createNotification(car, kmToNextService, settings);
                 return true;
@@ -93,16 +157,21 @@ public class NotificationService {
         return false;
     }
 
+    // Блокировка снимается при завершении транзакции
+    private void lockCarNotifications(Long carId) {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + NOTIFICATION_LOCK_NAMESPACE + ", "
+                + Long.hashCode(carId) + ")");
+    }
+
     @Transactional
     private void createNotification(Car car, Integer kmToNextService, ReminderSettings settings) {
         // Получаем количество выполненных ТО
-        List<ServiceRecord> completedServices = serviceRecordRepository
-                .findAllCompletedByCarId(car.getId());
+        Long completedServices = serviceRecordRepository.countCompletedServicesByCarId(car.getId());
 
         Notification notification = Notification.builder()
                 .car(car)
                 .kmToNextService(kmToNextService)
-                .serviceCount(completedServices.size())
+                .serviceCount(completedServices.intValue())
                 .type(kmToNextService < 0 ? Notification.NotificationType.OVERDUE : Notification.NotificationType.WARNING)
                 .message(generateMessage(car, kmToNextService))
                 .read(false)
@@ -145,7 +214,7 @@ public class NotificationService {
 
     @Transactional(readOnly = true)
     public List<NotificationDTO> getAllNotifications() {
-        List<Notification> notifications = notificationRepository.findAll();
+        List<Notification> notifications = notificationRepository.findAllWithCar();
         return notifications.stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
@@ -272,21 +341,12 @@ public class NotificationService {
 
     @Transactional(readOnly = true)
     public Map<String, Object> getNotificationStats() {
-        List<Notification> activeNotifications = notificationRepository.findByActiveTrue();
-
-        long total = activeNotifications.size();
-        long unread = activeNotifications.stream()
-                .mapToLong(n -> n.isRead() ? 0 : 1)
-                .sum();
-        long warning = activeNotifications.stream()
-                .mapToLong(n -> n.getType() == Notification.NotificationType.WARNING ? 1 : 0)
-                .sum();
-        long overdue = activeNotifications.stream()
-                .mapToLong(n -> n.getType() == Notification.NotificationType.OVERDUE ? 1 : 0)
-                .sum();
-        long info = activeNotifications.stream()
-                .mapToLong(n -> n.getType() == Notification.NotificationType.INFO ? 1 : 0)
-                .sum();
+        // Считаем в базе, без загрузки уведомлений и автомобилей
+        long total = notificationRepository.countActiveNotifications();
+        long unread = notificationRepository.countUnreadNotifications();
+        long warning = notificationRepository.countByType(Notification.NotificationType.WARNING);
+        long overdue = notificationRepository.countByType(Notification.NotificationType.OVERDUE);
+        long info = notificationRepository.countByType(Notification.NotificationType.INFO);
 
         Map<String, Object> stats = new HashMap<>();
         stats.put("total", total);
@@ -0,0 +1,127 @@
+package com.example.vkr2.services;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Кодек суточных блоков телеметрии одометра.
+ * <p>
+ * Первое показание хранится в колонках блока, в массиве байт - только последующие:
+ * для времени (секунды) пишется delta-of-delta, для пробега - дельта от предыдущего значения.
+ * Оба числа кодируются zigzag + varint, поэтому показания с шагом в минуту и небольшим
+ * приростом пробега занимают 2-3 байта вместо отдельной строки таблицы.
+ */
+public final class OdometerTelemetryCodec {
+
+    private OdometerTelemetryCodec() {
+    }
+
+    /**
+     * Кодирование показаний (отсортированных по времени) в массив байт
+     *
+     * @param samples показания, первое из них в массив не попадает
+     * @return сжатые данные
+     */
+    public static byte[] encode(List<Sample> samples) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(samples.size() * 3);
+        if (samples.isEmpty()) {
+            return out.toByteArray();
+        }
+
+        long prevTime = toEpochSecond(samples.get(0).dateTime());
+        long prevValue = samples.get(0).value();
+        long prevDelta = 0;
+
+        for (int i = 1; i < samples.size(); i++) {
+            Sample sample = samples.get(i);
+            long time = toEpochSecond(sample.dateTime());
+            long delta = time - prevTime;
+
+            writeVarLong(out, zigZag(delta - prevDelta));
+            writeVarLong(out, zigZag(sample.value() - prevValue));
+
+            prevDelta = delta;
+            prevTime = time;
+            prevValue = sample.value();
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Декодирование блока
+     *
+     * @param firstTimestamp время первого показания
+     * @param firstValue     первое показание
+     * @param sampleCount    общее количество показаний в блоке
+     * @param data           сжатые данные
+     * @return показания в порядке возрастания времени
+     */
+    public static List<Sample> decode(LocalDateTime firstTimestamp, long firstValue, int sampleCount, byte[] data) {
+        List<Sample> samples = new ArrayList<>(sampleCount);
+        if (sampleCount == 0) {
+            return samples;
+        }
+
+        long time = toEpochSecond(firstTimestamp);
+        long value = firstValue;
+        long delta = 0;
+        samples.add(new Sample(firstTimestamp, firstValue));
+
+        int[] position = {0};
+        for (int i = 1; i < sampleCount; i++) {
+            delta += unZigZag(readVarLong(data, position));
+            time += delta;
+            value += unZigZag(readVarLong(data, position));
+            samples.add(new Sample(LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC), value));
+        }
+
+        return samples;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] data, int[] position) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            if (position[0] >= data.length) {
+                throw new IllegalStateException("Повреждённый блок телеметрии: неожиданный конец данных");
+            }
+            byte b = data[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalStateException("Повреждённый блок телеметрии: слишком длинное число");
+            }
+        }
+    }
+
+    // Показание одометра с точностью до секунды
+    public record Sample(LocalDateTime dateTime, long value) {
+    }
+}
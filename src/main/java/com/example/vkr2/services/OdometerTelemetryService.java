@@ -0,0 +1,166 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.DTO.OdometerReadingDTO;
+import com.example.vkr2.DTO.OdometerTelemetryRequest;
+import com.example.vkr2.entity.Car;
+import com.example.vkr2.entity.OdometerTelemetryChunk;
+import com.example.vkr2.repository.CarRepository;
+import com.example.vkr2.repository.OdometerTelemetryChunkRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class OdometerTelemetryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OdometerTelemetryService.class);
+
+    // Оценка размера строки "одно показание - одна строка" в PostgreSQL:
+    // заголовок кортежа 24 байта + id, car_id, timestamp, значение по 8 байт + указатель 4 байта + индекс
+    private static final int ROW_PER_READING_BYTES_ESTIMATE = 80;
+
+    private final OdometerTelemetryChunkRepository chunkRepository;
+    private final CarRepository carRepository;
+    private final OutboxService outboxService;
+
+    @Transactional
+    public int appendReadings(OdometerTelemetryRequest request) {
+        Long carId = request.getCarId();
+        logger.info("Appending {} odometer readings for car ID: {}", request.getReadings().size(), carId);
+
+        // Строка автомобиля блокируется до конца транзакции: параллельные пакеты того же автомобиля
+        // ждут, а не читают один и тот же блок и не перезаписывают показания друг друга при слиянии
+        Car car = carRepository.findByIdForUpdate(carId)
+                .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + carId + " не найден"));
+
+        // Группируем показания по суткам, внутри суток - по времени (повторное время перезаписывает значение)
+        Map<LocalDate, TreeMap<LocalDateTime, Long>> readingsByDay = new TreeMap<>();
+        for (OdometerReadingDTO reading : request.getReadings()) {
+            LocalDateTime dateTime = reading.getDateTime().truncatedTo(ChronoUnit.SECONDS);
+            readingsByDay.computeIfAbsent(dateTime.toLocalDate(), d -> new TreeMap<>())
+                    .put(dateTime, reading.getOdometer());
+        }
+
+        long maxValue = Long.MIN_VALUE;
+        for (Map.Entry<LocalDate, TreeMap<LocalDateTime, Long>> day : readingsByDay.entrySet()) {
+            TreeMap<LocalDateTime, Long> merged = day.getValue();
+
+            OdometerTelemetryChunk chunk = chunkRepository.findByCarIdAndChunkDate(carId, day.getKey())
+                    .orElse(null);
+            if (chunk != null) {
+                for (OdometerTelemetryCodec.Sample sample : decodeChunk(chunk)) {
+                    merged.putIfAbsent(sample.dateTime(), sample.value());
+                }
+            } else {
+                chunk = OdometerTelemetryChunk.builder()
+                        .carId(carId)
+                        .chunkDate(day.getKey())
+                        .build();
+            }
+
+            List<OdometerTelemetryCodec.Sample> samples = merged.entrySet().stream()
+                    .map(e -> new OdometerTelemetryCodec.Sample(e.getKey(), e.getValue()))
+                    .collect(Collectors.toList());
+
+            chunk.setFirstTimestamp(merged.firstKey());
+            chunk.setLastTimestamp(merged.lastKey());
+            chunk.setFirstValue(merged.firstEntry().getValue());
+            chunk.setLastValue(merged.lastEntry().getValue());
+            chunk.setSampleCount(samples.size());
+            chunk.setData(OdometerTelemetryCodec.encode(samples));
+            chunkRepository.save(chunk);
+
+            maxValue = Math.max(maxValue, Collections.max(merged.values()));
+        }
+
+        // ОБНОВЛЯЕМ ПРОБЕГ АВТОМОБИЛЯ, если новое значение больше текущего
+        if (maxValue > car.getOdometr()) {
+            // Показания проверяются при приёме; ограничение защищает от переполнения при вызове в обход проверки
+            car.setOdometr((int) Math.min(maxValue, Integer.MAX_VALUE));
+            carRepository.save(car);
+            logger.info("Updated car odometer to {} km for car ID: {} from telemetry", maxValue, carId);
+            outboxService.publish(OutboxService.CAR_ODOMETER_CHANGED, OutboxService.AGGREGATE_CAR, car.getId(),
+                    Map.of("odometer", car.getOdometr()));
+        }
+
+        return request.getReadings().size();
+    }
+
+    @Transactional(readOnly = true)
+    public List<OdometerReadingDTO> getReadings(Long carId, LocalDateTime from, LocalDateTime to) {
+        logger.info("Fetching odometer telemetry for car ID: {} from {} to {}", carId, from, to);
+
+        return chunkRepository.findChunksInRange(carId, from.toLocalDate(), to.toLocalDate()).stream()
+                .flatMap(chunk -> decodeChunk(chunk).stream())
+                .filter(sample -> !sample.dateTime().isBefore(from) && !sample.dateTime().isAfter(to))
+                .map(sample -> new OdometerReadingDTO(sample.dateTime(), sample.value()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Прореженная выборка: по одному показанию (последнему) на каждый интервал
+     */
+    @Transactional(readOnly = true)
+    public List<OdometerReadingDTO> getDownsampledReadings(Long carId, LocalDateTime from, LocalDateTime to,
+                                                           int intervalMinutes) {
+        if (intervalMinutes <= 0) {
+            throw new IllegalArgumentException("Интервал прореживания должен быть положительным");
+        }
+        logger.info("Fetching downsampled odometer telemetry for car ID: {} with interval {} min", carId, intervalMinutes);
+
+        long intervalSeconds = intervalMinutes * 60L;
+        Map<Long, OdometerReadingDTO> buckets = new LinkedHashMap<>();
+
+        for (OdometerTelemetryChunk chunk : chunkRepository.findChunksInRange(carId, from.toLocalDate(), to.toLocalDate())) {
+            // Блок целиком за пределами интервала не декодируем
+            if (chunk.getLastTimestamp().isBefore(from) || chunk.getFirstTimestamp().isAfter(to)) {
+                continue;
+            }
+            for (OdometerTelemetryCodec.Sample sample : decodeChunk(chunk)) {
+                if (sample.dateTime().isBefore(from) || sample.dateTime().isAfter(to)) {
+                    continue;
+                }
+                long bucket = Math.floorDiv(sample.dateTime().toEpochSecond(ZoneOffset.UTC), intervalSeconds);
+                LocalDateTime bucketStart = LocalDateTime.ofEpochSecond(bucket * intervalSeconds, 0, ZoneOffset.UTC);
+                buckets.put(bucket, new OdometerReadingDTO(bucketStart, sample.value()));
+            }
+        }
+
+        return new ArrayList<>(buckets.values());
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStorageStats(Long carId) {
+        Object[] row = chunkRepository.getStorageStatsByCarId(carId).get(0);
+        long chunks = ((Number) row[0]).longValue();
+        long samples = ((Number) row[1]).longValue();
+        // Заголовок блока (даты, значения, счётчик) учитываем вместе с массивом байт
+        long storedBytes = ((Number) row[2]).longValue() + chunks * ROW_PER_READING_BYTES_ESTIMATE;
+        long rowPerReadingBytes = samples * ROW_PER_READING_BYTES_ESTIMATE;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("carId", carId);
+        stats.put("chunks", chunks);
+        stats.put("samples", samples);
+        stats.put("storedBytes", storedBytes);
+        stats.put("rowPerReadingBytesEstimate", rowPerReadingBytes);
+        stats.put("compressionRatio", storedBytes > 0 ? (double) rowPerReadingBytes / storedBytes : 0.0);
+        return stats;
+    }
+
+    private List<OdometerTelemetryCodec.Sample> decodeChunk(OdometerTelemetryChunk chunk) {
+        return OdometerTelemetryCodec.decode(chunk.getFirstTimestamp(), chunk.getFirstValue(),
+                chunk.getSampleCount(), chunk.getData());
+    }
+}
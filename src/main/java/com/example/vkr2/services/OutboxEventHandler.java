@@ -0,0 +1,24 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.entity.OutboxEvent;
+
+import java.util.Set;
+
+/**
+ * Обработчик доменных событий из outbox
+ */
+public interface OutboxEventHandler {
+
+    /**
+     * @return типы событий, которые обрабатывает обработчик
+     */
+    Set<String> eventTypes();
+
+    /**
+     * Обработка события. Доставка "как минимум один раз": обработчик должен быть идемпотентным.
+     * Исключение приводит к повторной попытке с задержкой
+     *
+     * @param event событие
+     */
+    void handle(OutboxEvent event) throws Exception;
+}
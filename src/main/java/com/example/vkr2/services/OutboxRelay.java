@@ -0,0 +1,261 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.entity.OutboxEvent;
+import com.example.vkr2.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ретранслятор outbox: забирает события порциями и передаёт обработчикам в отдельном пуле потоков.
+ * <p>
+ * Порция захватывается запросом FOR UPDATE SKIP LOCKED, и событиям сразу назначается аренда:
+ * пока она не истекла, другие узлы их не выбирают. Если узел остановится во время обработки,
+ * события будут доставлены повторно после окончания аренды. При ошибке обработчика событие
+ * откладывается с экспоненциальной задержкой, после исчерпания попыток помечается как FAILED.
+ * События одного агрегата из порции обрабатываются последовательно в одной задаче.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectProvider<OutboxEventHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.handler-threads:4}")
+    private int handlerThreads;
+
+    @Value("${outbox.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry-base-delay-ms:1000}")
+    private long retryBaseDelayMs;
+
+    @Value("${outbox.retry-max-delay-ms:600000}")
+    private long retryMaxDelayMs;
+
+    @Value("${outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${outbox.prune-batch-size:5000}")
+    private int pruneBatchSize;
+
+    private ThreadPoolExecutor executor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ObjectProvider<OutboxEventHandler> handlers,
+                       PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.handlers = handlers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(handlerThreads, handlerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "outbox-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:500}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Захватываем не больше, чем пул успеет принять
+            int capacity = Math.min(batchSize, executor.getQueue().remainingCapacity());
+            while (capacity > 0) {
+                List<OutboxEvent> batch = claimBatch(capacity);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                dispatch(batch);
+                if (batch.size() < capacity) {
+                    return;
+                }
+                capacity = Math.min(batchSize, executor.getQueue().remainingCapacity());
+            }
+        } catch (Exception e) {
+            logger.error("Error polling outbox: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.prune-interval-ms:3600000}")
+    public void pruneProcessed() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        long total = 0;
+        try {
+            while (true) {
+                Integer deleted = transactionTemplate.execute(status ->
+                        outboxEventRepository.deleteBatchProcessedBefore(before, pruneBatchSize));
+                if (deleted == null || deleted == 0) {
+                    break;
+                }
+                total += deleted;
+                if (deleted < pruneBatchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error pruning outbox: {}", e.getMessage());
+        }
+        if (total > 0) {
+            logger.info("Pruned {} processed outbox events older than {} days", total, retentionDays);
+        }
+    }
+
+    /**
+     * Возврат событий, исчерпавших попытки, в очередь
+     *
+     * @return количество событий
+     */
+    public int retryFailed() {
+        Integer reset = transactionTemplate.execute(status -> outboxEventRepository.resetFailed(LocalDateTime.now()));
+        int count = reset != null ? reset : 0;
+        logger.info("Returned {} failed outbox events to the queue", count);
+        return count;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING));
+        stats.put("failed", outboxEventRepository.countByStatus(OutboxEvent.Status.FAILED));
+        stats.put("inFlight", inFlight.get());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("delivered", delivered.get());
+        stats.put("retried", retried.get());
+        stats.put("failedDeliveries", failed.get());
+        return stats;
+    }
+
+    private List<OutboxEvent> claimBatch(int limit) {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = outboxEventRepository.lockAvailableBatch(now, limit);
+            LocalDateTime leaseUntil = now.plusNanos(leaseMs * 1_000_000);
+            for (OutboxEvent event : events) {
+                event.setAvailableAt(leaseUntil);
+                event.setAttempts(event.getAttempts() + 1);
+            }
+            return events;
+        });
+        return batch != null ? batch : List.of();
+    }
+
+    private void dispatch(List<OutboxEvent> batch) {
+        Map<String, List<OutboxEvent>> byAggregate = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byAggregate.computeIfAbsent(event.getAggregateType() + ":" + event.getAggregateId(),
+                    key -> new ArrayList<>()).add(event);
+        }
+        for (List<OutboxEvent> events : byAggregate.values()) {
+            inFlight.addAndGet(events.size());
+            try {
+                executor.execute(() -> events.forEach(this::deliver));
+            } catch (RejectedExecutionException e) {
+                // Аренда истечёт, и события будут выбраны повторно
+                inFlight.addAndGet(-events.size());
+                logger.warn("Outbox executor saturated, {} events postponed", events.size());
+            }
+        }
+    }
+
+    private void deliver(OutboxEvent event) {
+        try {
+            for (OutboxEventHandler handler : handlersFor(event.getEventType())) {
+                handler.handle(event);
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markDone(event.getId(), LocalDateTime.now()));
+            delivered.incrementAndGet();
+        } catch (Exception e) {
+            onFailure(event, e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void onFailure(OutboxEvent event, Exception cause) {
+        String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        String lastError = error;
+        try {
+            if (event.getAttempts() >= maxAttempts) {
+                transactionTemplate.executeWithoutResult(status ->
+                        outboxEventRepository.markFailed(event.getId(), LocalDateTime.now(), lastError));
+                failed.incrementAndGet();
+                logger.error("Outbox event {} ({}) failed after {} attempts: {}",
+                        event.getId(), event.getEventType(), event.getAttempts(), lastError);
+            } else {
+                long delayMs = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(event.getAttempts() - 1, 30));
+                LocalDateTime availableAt = LocalDateTime.now().plusNanos(delayMs * 1_000_000);
+                transactionTemplate.executeWithoutResult(status ->
+                        outboxEventRepository.markRetry(event.getId(), availableAt, lastError));
+                retried.incrementAndGet();
+                logger.warn("Outbox event {} ({}) attempt {} failed, retry in {} ms: {}",
+                        event.getId(), event.getEventType(), event.getAttempts(), delayMs, lastError);
+            }
+        } catch (Exception e) {
+            logger.error("Error recording outbox event {} failure: {}", event.getId(), e.getMessage());
+        }
+    }
+
+    private List<OutboxEventHandler> handlersFor(String eventType) {
+        return handlers.orderedStream()
+                .filter(handler -> handler.eventTypes().contains(eventType))
+                .toList();
+    }
+}
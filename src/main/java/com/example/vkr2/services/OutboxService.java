@@ -0,0 +1,73 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.entity.OutboxEvent;
+import com.example.vkr2.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Запись доменных событий в outbox.
+ * <p>
+ * Событие сохраняется в транзакции изменения: если она откатится, событие не появится,
+ * а реакция на изменение (уведомления и т.п.) выполняется ретранслятором уже после ответа клиенту.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    public static final String AGGREGATE_CAR = "car";
+
+    // Изменился пробег автомобиля
+    public static final String CAR_ODOMETER_CHANGED = "car.odometer-changed";
+    // Созданы или изменены настройки напоминаний
+    public static final String REMINDER_SETTINGS_CHANGED = "reminder-settings.changed";
+    // Удалены настройки напоминаний
+    public static final String REMINDER_SETTINGS_DELETED = "reminder-settings.deleted";
+    // Сервисная запись переведена в статус "Выполнено"
+    public static final String SERVICE_RECORD_COMPLETED = "service-record.completed";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Запись события в текущей транзакции
+     *
+     * @param eventType     тип события
+     * @param aggregateType тип агрегата
+     * @param aggregateId   ID агрегата
+     * @param payload       данные события
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String eventType, String aggregateType, Long aggregateId, Map<String, Object> payload) {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent event = OutboxEvent.builder()
+                .eventType(eventType)
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .payload(toJson(payload))
+                .createdAt(now)
+                .availableAt(now)
+                .build();
+        outboxEventRepository.save(event);
+        logger.debug("Outbox event {} recorded for {} {}", eventType, aggregateType, aggregateId);
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Не удалось сериализовать событие", e);
+        }
+    }
+}
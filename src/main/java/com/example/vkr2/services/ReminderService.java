@@ -11,13 +11,12 @@ import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -29,16 +28,14 @@ public class ReminderService {
     private final ReminderSettingsRepository reminderSettingsRepository;
     private final CarRepository carRepository;
     private final ServiceRecordRepository serviceRecordRepository;
-
-    @Autowired
-    @Lazy
-    private NotificationService notificationService;
+    private final NotificationService notificationService;
+    private final OutboxService outboxService;
 
     @Transactional
     public ReminderSettingsResponse createOrUpdateReminderSettings(ReminderSettingsRequest request) {
         logger.info("Creating/updating reminder settings for car ID: {}", request.getCarId());
 
-        Car car = carRepository.findById(request.getCarId())
+        Car car = carRepository.findActiveById(request.getCarId())
                 .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + request.getCarId() + " не найден"));
 
         ReminderSettings settings = reminderSettingsRepository.findByCarId(request.getCarId())
@@ -53,12 +50,9 @@ public class ReminderService {
         ReminderSettings savedSettings = reminderSettingsRepository.save(settings);
         logger.info("Reminder settings saved with ID: {}", savedSettings.getId());
 
-        // Принудительно проверяем уведомления для этого автомобиля после изменения настроек
-        try {
-            notificationService.checkCarMaintenanceNotification(car);
-        } catch (Exception e) {
-            logger.error("Ошибка при проверке уведомлений после обновления настроек: {}", e.getMessage());
-        }
+        // Уведомления для этого автомобиля пересчитываются после фиксации изменения настроек
+        outboxService.publish(OutboxService.REMINDER_SETTINGS_CHANGED, OutboxService.AGGREGATE_CAR, car.getId(),
+                Map.of("reminderSettingsId", savedSettings.getId()));
 
         return mapToSettingsResponse(savedSettings);
     }
@@ -77,7 +71,7 @@ public class ReminderService {
     public List<ReminderResponse> getAllReminders() {
         logger.info("Fetching all reminders");
 
-        List<Car> cars = carRepository.findAll();
+        List<Car> cars = carRepository.findAllActive();
         List<ReminderResponse> reminders = new ArrayList<>();
 
         for (Car car : cars) {
@@ -104,7 +98,7 @@ public class ReminderService {
     public ReminderResponse getReminderByCarId(Long carId) {
         logger.info("Fetching reminder for car ID: {}", carId);
 
-        Car car = carRepository.findById(carId)
+        Car car = carRepository.findActiveById(carId)
                 .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + carId + " не найден"));
 
         return createReminderForCar(car);
@@ -114,7 +108,7 @@ public class ReminderService {
     public ReminderResponse getReminderWithNotificationStatus(Long carId) {
         logger.info("Fetching detailed reminder for car ID: {}", carId);
 
-        Car car = carRepository.findById(carId)
+        Car car = carRepository.findActiveById(carId)
                 .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + carId + " не найден"));
 
         ReminderResponse reminder = createReminderForCar(car);
@@ -231,14 +225,11 @@ public class ReminderService {
         ReminderSettings settings = reminderSettingsRepository.findByCarId(carId)
                 .orElseThrow(() -> new EntityNotFoundException("Настройки напоминаний для автомобиля с ID " + carId + " не найдены"));
 
-        // Деактивируем связанные уведомления
-        try {
-            notificationService.deactivateNotificationsForCar(carId);
-        } catch (Exception e) {
-            logger.error("Ошибка при деактивации уведомлений: {}", e.getMessage());
-        }
-
         reminderSettingsRepository.delete(settings);
+
+        // Связанные уведомления деактивируются после фиксации удаления
+        outboxService.publish(OutboxService.REMINDER_SETTINGS_DELETED, OutboxService.AGGREGATE_CAR, carId,
+                Map.of("reminderSettingsId", settings.getId()));
         logger.info("Reminder settings deleted for car ID: {}", carId);
     }
 
@@ -247,7 +238,7 @@ public class ReminderService {
         logger.info("Triggering maintenance check for car ID: {}", carId);
 
         try {
-            Car car = carRepository.findById(carId)
+            Car car = carRepository.findActiveById(carId)
                     .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + carId + " не найден"));
 
             notificationService.checkCarMaintenanceNotification(car);
@@ -278,7 +269,7 @@ public class ReminderService {
     public List<ReminderSettingsResponse> getAllReminderSettings() {
         logger.info("Fetching all reminder settings");
 
-        return reminderSettingsRepository.findAll().stream()
+        return reminderSettingsRepository.findAllWithCar().stream()
                 .map(this::mapToSettingsResponse)
                 .toList();
     }
@@ -10,13 +10,12 @@ import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,16 +27,14 @@ public class ServiceRecordService {
     private final ServiceRecordRepository serviceRecordRepository;
     private final CarRepository carRepository;
     private final CounterValidationService counterValidationService;
-
-    @Autowired
-    @Lazy
-    private NotificationService notificationService;
+    private final NotificationService notificationService;
+    private final OutboxService outboxService;
 
     @Transactional
     public ServiceRecordResponse addServiceRecord(ServiceRecordRequest request) {
         logger.info("Adding service record for car ID: {}", request.getCarId());
 
-        Car car = carRepository.findById(request.getCarId())
+        Car car = carRepository.findActiveById(request.getCarId())
                 .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + request.getCarId() + " не найден"));
 
         // ВАЛИДАЦИЯ ПОКАЗАНИЙ СЧЕТЧИКА
@@ -75,6 +72,7 @@ public class ServiceRecordService {
             carRepository.save(car);
             logger.info("Updated car odometer to {} km for car ID: {}",
                     request.getCounterReading(), request.getCarId());
+            publishOdometerChanged(car);
         }
 
         logger.info("Service record added with ID: {} for car ID: {} with status: {}, counter: {}",
@@ -90,7 +88,7 @@ public class ServiceRecordService {
         ServiceRecord existingRecord = serviceRecordRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Сервисная запись с ID " + id + " не найдена"));
 
-        Car car = carRepository.findById(request.getCarId())
+        Car car = carRepository.findActiveById(request.getCarId())
                 .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + request.getCarId() + " не найден"));
 
         // ВАЛИДАЦИЯ ПОКАЗАНИЙ СЧЕТЧИКА (только если они изменились)
@@ -124,6 +122,7 @@ public class ServiceRecordService {
             carRepository.save(car);
             logger.info("Updated car odometer to {} km for car ID: {}",
                     request.getCounterReading(), request.getCarId());
+            publishOdometerChanged(car);
         }
 
         logger.info("Service record updated with ID: {}, counter: {}", updatedRecord.getId(), updatedRecord.getCounterReading());
@@ -134,7 +133,7 @@ public class ServiceRecordService {
     public List<ServiceRecordResponse> getAllServiceRecords() {
         logger.info("Fetching all service records");
         try {
-            return serviceRecordRepository.findAll().stream()
+            return serviceRecordRepository.findAllWithCar().stream()
                     .map(this::mapToResponse)
                     .collect(Collectors.toList());
         } catch (Exception e) {
@@ -216,14 +215,6 @@ public class ServiceRecordService {
         // Если статус "Выполнено", устанавливаем время завершения
         if (status == ServiceRecord.ServiceStatus.COMPLETED && record.getCompletedAt() == null) {
             record.setCompletedAt(LocalDateTime.now());
-
-            // Деактивируем уведомления для этого автомобиля, так как ТО выполнено
-            try {
-                notificationService.deactivateNotificationsForCar(record.getCar().getId());
-                logger.info("Deactivated notifications for car ID: {} after service completion", record.getCar().getId());
-            } catch (Exception e) {
-                logger.error("Ошибка при деактивации уведомлений после завершения ТО: {}", e.getMessage());
-            }
         }
 
         // Если статус изменился с "Выполнено" на другой, очищаем время завершения
@@ -233,22 +224,10 @@ public class ServiceRecordService {
 
         ServiceRecord updatedRecord = serviceRecordRepository.save(record);
 
-        // Если статус изменился на "Выполнено", проверяем необходимость создания новых уведомлений
+        // ТО выполнено: уведомления снимаются и пересчитываются от нового ТО после фиксации
         if (status == ServiceRecord.ServiceStatus.COMPLETED && oldStatus != ServiceRecord.ServiceStatus.COMPLETED) {
-            try {
-                // Небольшая задержка для корректного пересчета
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(2000); // 2 секунды задержки
-                        notificationService.checkCarMaintenanceNotification(record.getCar());
-                        logger.info("Checked maintenance notifications for car ID: {} after service completion", record.getCar().getId());
-                    } catch (Exception e) {
-                        logger.error("Ошибка при проверке уведомлений в фоновом потоке: {}", e.getMessage());
-                    }
-                }).start();
-            } catch (Exception e) {
-                logger.error("Ошибка при запуске фоновой проверки уведомлений: {}", e.getMessage());
-            }
+            outboxService.publish(OutboxService.SERVICE_RECORD_COMPLETED, OutboxService.AGGREGATE_CAR,
+                    record.getCar().getId(), Map.of("serviceRecordId", id));
         }
 
         logger.info("Service record status updated with ID: {} to status: {}", id, status);
@@ -285,8 +264,7 @@ public class ServiceRecordService {
     public List<ServiceRecordResponse> getServiceRecordsByStatus(ServiceRecord.ServiceStatus status) {
         logger.info("Fetching service records with status: {}", status);
         try {
-            return serviceRecordRepository.findAll().stream()
-                    .filter(record -> record.getStatus() == status)
+            return serviceRecordRepository.findByStatus(status).stream()
                     .map(this::mapToResponse)
                     .collect(Collectors.toList());
         } catch (Exception e) {
@@ -334,11 +312,9 @@ public class ServiceRecordService {
         logger.info("Fetching overdue service records");
         LocalDateTime now = LocalDateTime.now();
         try {
-            return serviceRecordRepository.findAll().stream()
-                    .filter(record -> record.getPlannedEndDateTime() != null &&
-                            record.getPlannedEndDateTime().isBefore(now) &&
-                            record.getStatus() != ServiceRecord.ServiceStatus.COMPLETED &&
-                            record.getStatus() != ServiceRecord.ServiceStatus.CANCELLED)
+            return serviceRecordRepository.findOverdue(
+                            List.of(ServiceRecord.ServiceStatus.PLANNED, ServiceRecord.ServiceStatus.IN_PROGRESS), now)
+                    .stream()
                     .map(this::mapToResponse)
                     .collect(Collectors.toList());
         } catch (Exception e) {
@@ -350,7 +326,7 @@ public class ServiceRecordService {
     // Статистические методы
     @Transactional(readOnly = true)
     public long countServiceRecordsByCarId(Long carId) {
-        return serviceRecordRepository.findByCarId(carId).size();
+        return serviceRecordRepository.countByCarId(carId);
     }
 
     @Transactional(readOnly = true)
@@ -374,7 +350,7 @@ public class ServiceRecordService {
     public void triggerNotificationCheckForCar(Long carId) {
         logger.info("Triggering notification check for car ID: {}", carId);
         try {
-            Car car = carRepository.findById(carId)
+            Car car = carRepository.findActiveById(carId)
                     .orElseThrow(() -> new EntityNotFoundException("Автомобиль с ID " + carId + " не найден"));
             notificationService.checkCarMaintenanceNotification(car);
         } catch (Exception e) {
@@ -383,6 +359,11 @@ public class ServiceRecordService {
         }
     }
 
+    private void publishOdometerChanged(Car car) {
+        outboxService.publish(OutboxService.CAR_ODOMETER_CHANGED, OutboxService.AGGREGATE_CAR, car.getId(),
+                Map.of("odometer", car.getOdometr()));
+    }
+
     private ServiceRecordResponse mapToResponse(ServiceRecord record) {
         ServiceRecordResponse response = new ServiceRecordResponse();
         response.setId(record.getId());
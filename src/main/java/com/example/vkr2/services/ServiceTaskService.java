@@ -64,7 +64,7 @@ public class ServiceTaskService {
     public List<ServiceTaskResponse> getAllServiceTasks() {
         logger.info("Fetching all service tasks");
         try {
-            return serviceTaskRepository.findAll().stream()
+            return serviceTaskRepository.findAllWithServiceRecord().stream()
                     .map(this::mapToResponse)
                     .collect(Collectors.toList());
         } catch (Exception e) {
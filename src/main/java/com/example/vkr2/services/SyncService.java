@@ -0,0 +1,236 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.DTO.SyncChangeDTO;
+import com.example.vkr2.entity.ChangeLogEntry;
+import com.example.vkr2.repository.ChangeLogRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Инкрементальная синхронизация клиентов по журналу изменений.
+ * <p>
+ * Построчные триггеры записывают каждое создание, изменение и удаление в change_log вместе с новым
+ * состоянием строки. Порядковый номер (курсор) назначается фоновой задачей только уже зафиксированным
+ * записям и под advisory-блокировкой, поэтому запись с меньшим номером не может появиться после того,
+ * как клиент прочитал больший: номер из последовательности в момент вставки такого не гарантирует
+ * при параллельных транзакциях.
+ */
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+
+    private static final List<String> SYNCED_TABLES = List.of(
+            "car", "fuel_entries", "service_record", "additional_expense", "spare_part", "notifications"
+    );
+
+    // Служебная запись журнала, отмечающая принудительную перезагрузку клиентов
+    private static final String RESET_MARKER_TABLE = "_sync_reset";
+
+    // Ключ advisory-блокировки назначения номеров
+    private static final long SEQUENCER_LOCK_KEY = 0x5C_0C_4A_06L;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${sync.page-size:500}")
+    private int defaultPageSize;
+
+    @Value("${sync.max-page-size:5000}")
+    private int maxPageSize;
+
+    @Value("${sync.sequence-batch-size:5000}")
+    private int sequenceBatchSize;
+
+    @Value("${sync.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${sync.prune-batch-size:5000}")
+    private int pruneBatchSize;
+
+    // Таблицы к этому моменту уже созданы Hibernate (ddl-auto)
+    @EventListener(ApplicationReadyEvent.class)
+    public void installTriggers() {
+        try {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS change_log_seq");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_change_log_unsequenced ON change_log (id) WHERE seq IS NULL");
+            jdbcTemplate.execute("CREATE OR REPLACE FUNCTION record_change() RETURNS trigger AS $$ " +
+                    "BEGIN " +
+                    "IF TG_OP = 'DELETE' THEN " +
+                    "INSERT INTO change_log (table_name, row_id, operation, data, changed_at) " +
+                    "VALUES (TG_TABLE_NAME, OLD.id, 'D', NULL, now()); " +
+                    "ELSE " +
+                    "INSERT INTO change_log (table_name, row_id, operation, data, changed_at) " +
+                    "VALUES (TG_TABLE_NAME, NEW.id, left(TG_OP, 1), to_jsonb(NEW), now()); " +
+                    "END IF; " +
+                    "RETURN NULL; END; $$ LANGUAGE plpgsql");
+            // Пересоздание в одной транзакции: записи в таблицу ждут блокировку и не проходят мимо журнала
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            for (String table : SYNCED_TABLES) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + table + "_change_log ON " + table);
+                    jdbcTemplate.execute("CREATE TRIGGER " + table + "_change_log " +
+                            "AFTER INSERT OR UPDATE OR DELETE ON " + table + " " +
+                            "FOR EACH ROW EXECUTE FUNCTION record_change()");
+                });
+            }
+            logger.info("Change log triggers installed on {} tables", SYNCED_TABLES.size());
+        } catch (Exception e) {
+            logger.error("Error installing change log triggers, delta sync unavailable: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Изменения после курсора
+     *
+     * @param since    курсор, полученный в предыдущем ответе
+     * @param pageSize максимальное число записей журнала в ответе
+     * @return изменения, новый курсор и признак необходимости полной перезагрузки
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getChanges(long since, Integer pageSize) {
+        int limit = Math.min(pageSize != null && pageSize > 0 ? pageSize : defaultPageSize, maxPageSize);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        // Часть изменений после курсора уже удалена из журнала: клиенту нужна полная загрузка
+        if (isPruned(since)) {
+            Long head = changeLogRepository.findMaxSeq();
+            result.put("resetRequired", true);
+            result.put("cursor", head != null ? head : since);
+            result.put("hasMore", false);
+            result.put("changes", List.of());
+            return result;
+        }
+
+        List<ChangeLogEntry> entries = changeLogRepository.findBySeqGreaterThanOrderBySeqAsc(since, Limit.of(limit));
+
+        // Несколько изменений одной строки в пределах страницы сводятся к последнему
+        Map<String, SyncChangeDTO> latest = new LinkedHashMap<>();
+        for (ChangeLogEntry entry : entries) {
+            String key = entry.getTableName() + ":" + entry.getRowId();
+            latest.remove(key);
+            latest.put(key, toDto(entry));
+        }
+
+        result.put("resetRequired", false);
+        result.put("cursor", entries.isEmpty() ? since : entries.get(entries.size() - 1).getSeq());
+        result.put("hasMore", entries.size() == limit);
+        result.put("changes", new ArrayList<>(latest.values()));
+        return result;
+    }
+
+    /**
+     * Текущая позиция журнала: клиент запоминает её до полной загрузки данных
+     * и после загрузки запрашивает изменения начиная с неё
+     */
+    @Transactional(readOnly = true)
+    public long getHeadCursor() {
+        Long head = changeLogRepository.findMaxSeq();
+        return head != null ? head : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${sync.sequence-interval-ms:1000}")
+    public void assignSequence() {
+        try {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            int assigned;
+            do {
+                Integer batch = transactionTemplate.execute(status ->
+                        Boolean.TRUE.equals(changeLogRepository.tryAdvisoryLock(SEQUENCER_LOCK_KEY))
+                                ? changeLogRepository.assignSeqBatch(sequenceBatchSize)
+                                : 0);
+                assigned = batch != null ? batch : 0;
+            } while (assigned == sequenceBatchSize);
+        } catch (Exception e) {
+            logger.error("Error assigning change log sequence: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sync.prune-interval-ms:3600000}")
+    public void pruneChangeLog() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long total = 0;
+        try {
+            Long boundary = changeLogRepository.findPruneBoundary(before);
+            if (boundary == null) {
+                return;
+            }
+            while (true) {
+                Integer deleted = transactionTemplate.execute(status ->
+                        changeLogRepository.deleteBatchUpToSeq(boundary, pruneBatchSize));
+                if (deleted == null || deleted == 0) {
+                    break;
+                }
+                total += deleted;
+                if (deleted < pruneBatchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error pruning change log: {}", e.getMessage());
+        }
+        if (total > 0) {
+            logger.info("Pruned {} change log entries older than {} days", total, retentionDays);
+        }
+    }
+
+    /**
+     * Принудительная полная перезагрузка всех клиентов.
+     * <p>
+     * Нужна после загрузки данных в обход журнала (генератор с отключёнными триггерами): такие строки
+     * по курсору не получить. Служебная запись журнала получает номер через один после текущего,
+     * а все записи с меньшими номерами удаляются в той же транзакции, поэтому курсор любого клиента
+     * оказывается до начала журнала и следующий запрос изменений вернёт resetRequired.
+     *
+     * @return номер служебной записи - новое начало журнала
+     */
+    public long forceReset() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long marker = transactionTemplate.execute(status -> {
+            // Та же блокировка, что у назначения номеров: номера не выдаются параллельно
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + SEQUENCER_LOCK_KEY + ")");
+            Long seq = jdbcTemplate.queryForObject("INSERT INTO change_log (table_name, row_id, operation, data, changed_at, seq) " +
+                    "VALUES ('" + RESET_MARKER_TABLE + "', 0, 'R', NULL, now(), " +
+                    "setval('change_log_seq', nextval('change_log_seq') + 1)) RETURNING seq", Long.class);
+            int deleted = jdbcTemplate.update("DELETE FROM change_log WHERE seq < ?", seq);
+            logger.info("Change log reset at seq {}, {} entries dropped: clients must reload", seq, deleted);
+            return seq;
+        });
+        return marker != null ? marker : 0;
+    }
+
+    private boolean isPruned(long since) {
+        Long minSeq = changeLogRepository.findMinSeq();
+        return minSeq != null && since < minSeq - 1;
+    }
+
+    private SyncChangeDTO toDto(ChangeLogEntry entry) {
+        SyncChangeDTO dto = new SyncChangeDTO();
+        dto.setSeq(entry.getSeq());
+        dto.setTable(entry.getTableName());
+        dto.setId(entry.getRowId());
+        dto.setOperation(entry.getOperation());
+        dto.setData(entry.getData());
+        return dto;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.vkr2.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версии таблиц для условных GET-запросов (ETag).
+ * <p>
+ * На таблицы ставятся триггеры уровня оператора, которые после любой записи (включая массовые
+ * запросы и правки в обход приложения) отправляют pg_notify в канал шины инвалидации.
+ * Уведомления доставляются после фиксации транзакции, и каждый узел увеличивает свой счётчик версии.
+ * Счётчики локальны для узла, поэтому в ETag входит случайная эпоха узла: на другом узле
+ * ETag просто не совпадёт. Пока шина не слушает канал, версиям доверять нельзя.
+ */
+@Service
+public class TableVersionService implements CacheInvalidationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableVersionService.class);
+
+    public static final String REGION = "table";
+
+    private static final List<String> TRACKED_TABLES = List.of(
+            "car", "driver", "reminder_settings", "notifications", "spare_part",
+            "service_record", "service_task", "fuel_entries", "additional_expense"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${cache.invalidation.channel:cache_invalidation}")
+    private String channel;
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private volatile String epoch = newEpoch();
+    private volatile boolean triggersInstalled;
+
+    public TableVersionService(JdbcTemplate jdbcTemplate, CacheInvalidationBus cacheInvalidationBus,
+                               PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.transactionManager = transactionManager;
+        TRACKED_TABLES.forEach(table -> versions.put(table, new AtomicLong()));
+    }
+
+    // Таблицы к этому моменту уже созданы Hibernate (ddl-auto)
+    @EventListener(ApplicationReadyEvent.class)
+    public void installTriggers() {
+        try {
+            jdbcTemplate.execute("CREATE OR REPLACE FUNCTION notify_table_change() RETURNS trigger AS $$ " +
+                    "BEGIN PERFORM pg_notify('" + channel + "', 'db|" + REGION + ":' || TG_TABLE_NAME); RETURN NULL; END; " +
+                    "$$ LANGUAGE plpgsql");
+            // Пересоздание в одной транзакции: записи ждут блокировку и не остаются без уведомления
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            for (String table : TRACKED_TABLES) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + table + "_change_notify ON " + table);
+                    jdbcTemplate.execute("CREATE TRIGGER " + table + "_change_notify " +
+                            "AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON " + table + " " +
+                            "FOR EACH STATEMENT EXECUTE FUNCTION notify_table_change()");
+                });
+            }
+            triggersInstalled = true;
+            logger.info("Table change triggers installed on {} tables", TRACKED_TABLES.size());
+        } catch (Exception e) {
+            logger.error("Error installing table change triggers, conditional GET disabled: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return true, если версиям можно доверять: триггеры стоят и шина принимает уведомления
+     */
+    public boolean isTracking() {
+        return triggersInstalled && cacheInvalidationBus.isListening();
+    }
+
+    /**
+     * Строгий ETag по версиям набора таблиц
+     *
+     * @param tables таблицы, из которых строится ответ
+     * @return значение заголовка ETag (в кавычках)
+     */
+    public String etag(List<String> tables) {
+        StringBuilder source = new StringBuilder(epoch);
+        for (String table : tables) {
+            AtomicLong version = versions.get(table);
+            source.append('|').append(table).append('=').append(version != null ? version.get() : -1);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    @Override
+    public Set<String> regions() {
+        return Set.of(REGION);
+    }
+
+    @Override
+    public void evict(String region, String table) {
+        AtomicLong version = versions.get(table);
+        if (version != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    // Уведомления могли быть потеряны: все ранее выданные ETag становятся недействительными
+    @Override
+    public void evictAll() {
+        epoch = newEpoch();
+    }
+
+    private static String newEpoch() {
+        return UUID.randomUUID().toString();
+    }
+}
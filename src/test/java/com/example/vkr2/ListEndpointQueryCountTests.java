@@ -0,0 +1,263 @@
+package com.example.vkr2;
+
+import com.example.vkr2.JWT.config.QueryProfiler;
+import com.example.vkr2.entity.*;
+import com.example.vkr2.repository.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL-запросов списочных эндпоинтов не должно зависеть от числа строк (нет N+1).
+ * <p>
+ * Запросы считает QueryProfiler по потоку HTTP-запроса, поэтому фоновые задачи в счёт не попадают.
+ * Перед каждым вызовом кэш второго уровня сбрасывается: иначе ленивые связи читались бы из кэша
+ * и N+1 не был бы виден.
+ * <p>
+ * Тест работает с отдельной базой {@value #TEST_DATABASE} на сервере из настроек приложения (создаётся
+ * при первом запуске): записи журналов аудита и изменений, порождённые тестовыми данными,
+ * не попадают в рабочую базу разработчика.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "query-count-test")
+class ListEndpointQueryCountTests {
+
+    private static final int SMALL = 2;
+    private static final int LARGE = 12;
+
+    private static final String TEST_DATABASE = "vkr2_query_count_test";
+
+    private static final Pattern DATABASE_URL = Pattern.compile("(jdbc:postgresql://[^/]+/)([^?]*)(.*)");
+
+    @DynamicPropertySource
+    static void isolatedDatabase(DynamicPropertyRegistry registry) throws IOException, SQLException {
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        String url = properties.getProperty("spring.datasource.url");
+        String username = properties.getProperty("spring.datasource.username");
+        String password = properties.getProperty("spring.datasource.password");
+        Matcher matcher = DATABASE_URL.matcher(url);
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Неожиданный адрес базы: " + url);
+        }
+
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             PreparedStatement exists = connection.prepareStatement("SELECT 1 FROM pg_database WHERE datname = ?")) {
+            exists.setString(1, TEST_DATABASE);
+            try (ResultSet resultSet = exists.executeQuery()) {
+                if (!resultSet.next()) {
+                    try (Statement create = connection.createStatement()) {
+                        create.execute("CREATE DATABASE " + TEST_DATABASE);
+                    }
+                }
+            }
+        }
+
+        String testUrl = matcher.group(1) + TEST_DATABASE + matcher.group(3);
+        registry.add("spring.datasource.url", () -> testUrl);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private QueryProfiler queryProfiler;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CarRepository carRepository;
+    @Autowired
+    private DriverRepository driverRepository;
+    @Autowired
+    private ReminderSettingsRepository reminderSettingsRepository;
+    @Autowired
+    private FuelEntryRepository fuelEntryRepository;
+    @Autowired
+    private ServiceRecordRepository serviceRecordRepository;
+    @Autowired
+    private AdditionalExpenseRepository additionalExpenseRepository;
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    // Уникальные VIN и номера, чтобы не пересекаться с данными в базе
+    private final long base = ThreadLocalRandom.current().nextLong(10_000_000L, 90_000_000L);
+
+    private final List<Car> cars = new ArrayList<>();
+    private final List<Driver> drivers = new ArrayList<>();
+    private final List<Long> reminderSettingsIds = new ArrayList<>();
+    private final List<Long> fuelEntryIds = new ArrayList<>();
+    private final List<Long> serviceRecordIds = new ArrayList<>();
+    private final List<Long> expenseIds = new ArrayList<>();
+    private final List<Long> notificationIds = new ArrayList<>();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/admin/cars",
+            "/admin/cars/filter",
+            "/admin/drivers",
+            "/admin/fuel-entries",
+            "/admin/service-records",
+            "/admin/additional-expenses",
+            "/admin/notifications",
+            "/admin/notifications/all",
+            "/admin/reminders/settings"
+    })
+    void listEndpointStatementCountDoesNotGrowWithRows(String path) throws Exception {
+        seed(SMALL);
+        long small = statementsFor(path, SMALL);
+
+        seed(LARGE - SMALL);
+        long large = statementsFor(path, LARGE);
+
+        assertTrue(small > 0, "Запросы эндпоинта " + path + " не попали в профиль");
+        assertEquals(small, large, "Число запросов " + path + " растёт с числом строк: " + small + " -> " + large);
+    }
+
+    private long statementsFor(String path, int minRows) throws Exception {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        queryProfiler.reset();
+
+        MvcResult result = mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn();
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertTrue(body.isArray() && body.size() >= minRows,
+                "Эндпоинт " + path + " вернул меньше " + minRows + " строк: " + body.size());
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> endpoints = (List<Map<String, Object>>) queryProfiler.getReport(100).get("endpoints");
+        return endpoints.stream()
+                .filter(endpoint -> ("GET " + path).equals(endpoint.get("endpoint")))
+                .map(endpoint -> ((Number) endpoint.get("maxStatements")).longValue())
+                .findFirst()
+                .orElse(0L);
+    }
+
+    // Автомобиль с водителем, настройками напоминаний и по одной записи истории каждого типа
+    private void seed(int count) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < count; i++) {
+            long number = base + cars.size();
+
+            Driver driver = new Driver();
+            driver.setFullName("Водитель " + number);
+            driver.setPhoneNumber("+7900" + number % 10_000_000L);
+            driver = driverRepository.save(driver);
+            drivers.add(driver);
+
+            Car car = carRepository.save(Car.builder()
+                    .vin(String.format("QCT%014d", number))
+                    .licensePlate(String.format("Q%08d", number))
+                    .brand("Lada")
+                    .model("Vesta")
+                    .year(2020)
+                    .odometr(50_000)
+                    .fuelConsumption(7.5)
+                    .status(CarStatus.IN_USE)
+                    .counterType(CounterType.ODOMETER)
+                    .secondaryCounterEnabled(Boolean.FALSE)
+                    .fuelType(FuelEntry.FuelType.GASOLINE)
+                    .driver(driver)
+                    .build());
+            cars.add(car);
+            driver.setCar(car);
+            driverRepository.save(driver);
+
+            reminderSettingsIds.add(reminderSettingsRepository.save(ReminderSettings.builder()
+                    .car(car)
+                    .serviceIntervalKm(15_000)
+                    .notificationThresholdKm(500)
+                    .notificationsEnabled(true)
+                    .build()).getId());
+
+            fuelEntryIds.add(fuelEntryRepository.save(FuelEntry.builder()
+                    .car(car)
+                    .odometerReading(50_000L)
+                    .gasStation("Лукойл")
+                    .fuelType(FuelEntry.FuelType.GASOLINE)
+                    .volume(40.0)
+                    .pricePerUnit(55.0)
+                    .totalCost(2_200.0)
+                    .dateTime(now)
+                    .build()).getId());
+
+            serviceRecordIds.add(serviceRecordRepository.save(ServiceRecord.builder()
+                    .car(car)
+                    .counterReading(50_000L)
+                    .startDateTime(now)
+                    .details("Плановое ТО")
+                    .totalCost(5_000.0)
+                    .createdAt(now)
+                    .build()).getId());
+
+            expenseIds.add(additionalExpenseRepository.save(AdditionalExpense.builder()
+                    .car(car)
+                    .type("Мойка")
+                    .price(500.0)
+                    .dateTime(now)
+                    .build()).getId());
+
+            notificationIds.add(notificationRepository.save(Notification.builder()
+                    .car(car)
+                    .message("До ТО 400 км")
+                    .kmToNextService(400)
+                    .serviceCount(1)
+                    .createdAt(now)
+                    .read(false)
+                    .active(true)
+                    .type(Notification.NotificationType.WARNING)
+                    .build()).getId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        notificationRepository.deleteAllByIdInBatch(notificationIds);
+        additionalExpenseRepository.deleteAllByIdInBatch(expenseIds);
+        serviceRecordRepository.deleteAllByIdInBatch(serviceRecordIds);
+        fuelEntryRepository.deleteAllByIdInBatch(fuelEntryIds);
+        reminderSettingsRepository.deleteAllByIdInBatch(reminderSettingsIds);
+        // Связь автомобиль - водитель хранится с обеих сторон: сначала снимаем её у водителей
+        for (Driver driver : drivers) {
+            driver.setCar(null);
+        }
+        driverRepository.saveAll(drivers);
+        carRepository.deleteAllByIdInBatch(cars.stream().map(Car::getId).toList());
+        driverRepository.deleteAllByIdInBatch(drivers.stream().map(Driver::getId).toList());
+    }
+}
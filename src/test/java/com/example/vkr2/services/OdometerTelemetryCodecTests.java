@@ -0,0 +1,96 @@
+package com.example.vkr2.services;
+
+import com.example.vkr2.services.OdometerTelemetryCodec.Sample;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Кодирование и декодирование блока телеметрии должны давать исходные показания,
+ * в том числе при отрицательных дельтах, сбросе счётчика и пустом блоке.
+ */
+class OdometerTelemetryCodecTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 20, 0, 0);
+
+    @Test
+    void emptyChunkRoundTrips() {
+        byte[] data = OdometerTelemetryCodec.encode(List.of());
+
+        assertEquals(0, data.length);
+        assertEquals(List.of(), OdometerTelemetryCodec.decode(START, 0, 0, data));
+    }
+
+    @Test
+    void singleSampleIsStoredOutsideData() {
+        List<Sample> samples = List.of(new Sample(START, 50_000));
+
+        byte[] data = OdometerTelemetryCodec.encode(samples);
+
+        assertEquals(0, data.length);
+        assertEquals(samples, roundTrip(samples, data));
+    }
+
+    @Test
+    void regularSeriesRoundTripsCompactly() {
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 1_440; i++) {
+            samples.add(new Sample(START.plusMinutes(i), 50_000 + i / 2));
+        }
+
+        byte[] data = OdometerTelemetryCodec.encode(samples);
+
+        assertEquals(samples, roundTrip(samples, data));
+        assertTrue(data.length <= (samples.size() - 1) * 3, "Блок занимает " + data.length + " байт");
+    }
+
+    @Test
+    void negativeDeltasRoundTrip() {
+        // Интервал сначала растёт, затем сокращается (отрицательный delta-of-delta), пробег откатывается назад
+        List<Sample> samples = List.of(
+                new Sample(START, 50_000),
+                new Sample(START.plusSeconds(60), 50_010),
+                new Sample(START.plusSeconds(600), 50_005),
+                new Sample(START.plusSeconds(601), 49_000),
+                new Sample(START.plusSeconds(602), 49_001),
+                new Sample(START.plusSeconds(7_200), 48_999));
+
+        assertEquals(samples, roundTrip(samples, OdometerTelemetryCodec.encode(samples)));
+    }
+
+    @Test
+    void counterResetRoundTrips() {
+        List<Sample> samples = List.of(
+                new Sample(START, Integer.MAX_VALUE),
+                new Sample(START.plusMinutes(1), 0),
+                new Sample(START.plusMinutes(2), 3),
+                new Sample(START.plusMinutes(3), Integer.MAX_VALUE));
+
+        assertEquals(samples, roundTrip(samples, OdometerTelemetryCodec.encode(samples)));
+    }
+
+    @Test
+    void truncatedDataIsRejected() {
+        List<Sample> samples = List.of(
+                new Sample(START, 0),
+                new Sample(START.plusMinutes(1), 100_000),
+                new Sample(START.plusMinutes(2), 200_000));
+        byte[] data = OdometerTelemetryCodec.encode(samples);
+
+        byte[] truncated = Arrays.copyOf(data, data.length - 1);
+
+        assertThrows(IllegalStateException.class, () -> roundTrip(samples, truncated));
+    }
+
+    private static List<Sample> roundTrip(List<Sample> samples, byte[] data) {
+        Sample first = samples.get(0);
+        return OdometerTelemetryCodec.decode(first.dateTime(), first.value(), samples.size(), data);
+    }
+}